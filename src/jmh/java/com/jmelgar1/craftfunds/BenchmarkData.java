@@ -0,0 +1,64 @@
+package com.jmelgar1.craftfunds;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic donation histories for the benchmarks. Generation is seeded so
+ * every run, and every fork, sees the same data.
+ */
+final class BenchmarkData {
+    private static final String[] NAMES = {
+        "Steve", "Alex", "Notch", "Jeb", "Dinnerbone", "Grumm", "Herobrine", "Technoblade"
+    };
+    private static final long[] AMOUNT_CENTS = { 100, 250, 500, 1000, 1500, 2000, 499, 1234 };
+
+    /**
+     * Exchange rates used by the benchmarks; the generated donations are all in the goal currency
+     */
+    static final ExchangeRates RATES = new ExchangeRates(Map.of("EUR", 1.08, "GBP", 1.27));
+
+    /**
+     * Monthly funding goal used when building reports, in cents
+     */
+    static final long GOAL_CENTS = 1500;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param size Number of donations to generate
+     * @return Donations ordered oldest first, as the ledger keeps them
+     */
+    static List<DonationLedger.Donation> donations(int size) {
+        Random random = new Random(42);
+        List<DonationLedger.Donation> donations = new ArrayList<>(size);
+        LocalDate date = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(4) == 0) {
+                date = date.plusDays(1);
+            }
+            donations.add(new DonationLedger.Donation(
+                i + 1,
+                NAMES[random.nextInt(NAMES.length)],
+                AMOUNT_CENTS[random.nextInt(AMOUNT_CENTS.length)],
+                ExchangeRates.GOAL_CURRENCY,
+                date));
+        }
+        return donations;
+    }
+
+    /**
+     * @return A spending total in cents that consumes the given fraction of all donations
+     */
+    static long spendingFor(List<DonationLedger.Donation> donations, double consumedFraction) {
+        long total = 0;
+        for (DonationLedger.Donation donation : donations) {
+            total += donation.amountCents();
+        }
+        return (long) Math.floor(total * consumedFraction);
+    }
+}
@@ -0,0 +1,61 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the ledger walk that subtracts total spending from the donation
+ * history, and building a full report (walk plus rendering) from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmark {
+
+    @Param({ "100", "10000", "100000", "1000000" })
+    public int donationCount;
+
+    /**
+     * Fraction of the donation history consumed by spending
+     */
+    @Param({ "0.0", "0.5", "0.99" })
+    public double consumedFraction;
+
+    private DonationLedger.Rows rows;
+    private long totalSpendingCents;
+    private long totalDonationsCents;
+
+    @Setup
+    public void setup() {
+        List<DonationLedger.Donation> donations = BenchmarkData.donations(donationCount);
+        rows = DonationLedger.Rows.of(donations);
+        totalSpendingCents = BenchmarkData.spendingFor(donations, consumedFraction);
+        totalDonationsCents = BenchmarkData.spendingFor(donations, 1.0);
+    }
+
+    @Benchmark
+    public DonationLedger.Excess deriveExcess() {
+        return DonationLedger.deriveExcess(rows, totalSpendingCents, BenchmarkData.RATES);
+    }
+
+    @Benchmark
+    public FundingReport buildReport() {
+        DonationLedger.Excess excess = DonationLedger.deriveExcess(rows, totalSpendingCents, BenchmarkData.RATES);
+        return new FundingReport(totalDonationsCents, totalSpendingCents, rows.size(), excess.count(),
+            DonationLedger.excessDonations(rows, excess, BenchmarkData.RATES, 10), BenchmarkData.GOAL_CENTS);
+    }
+}
@@ -0,0 +1,69 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks money formatting and the rendering of the fund message: the
+ * hover text, the summary line and the per-recipient message assembly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    private List<DonationLedger.ExcessDonation> displayedDonations;
+    private FundingReport report;
+
+    @Setup
+    public void setup() {
+        List<DonationLedger.Donation> donations = BenchmarkData.donations(100);
+        long totalDonationsCents = BenchmarkData.spendingFor(donations, 1.0);
+        long totalSpendingCents = BenchmarkData.spendingFor(donations, 0.5);
+        DonationLedger.Rows rows = DonationLedger.Rows.of(donations);
+        DonationLedger.Excess excess = DonationLedger.deriveExcess(rows, totalSpendingCents, BenchmarkData.RATES);
+        displayedDonations = DonationLedger.excessDonations(rows, excess, BenchmarkData.RATES, 10);
+        report = new FundingReport(totalDonationsCents, totalSpendingCents, donations.size(), excess.count(),
+            displayedDonations, BenchmarkData.GOAL_CENTS);
+    }
+
+    @Benchmark
+    public void formatAmount(Blackhole blackhole) {
+        blackhole.consume(Money.format(1500));
+        blackhole.consume(Money.format(1234));
+        blackhole.consume(Money.format(123450));
+    }
+
+    /**
+     * Renders the summary, hover and goal lines for one snapshot
+     */
+    @Benchmark
+    public List<Text> renderReport() {
+        return FundMessageRenderer.render(report);
+    }
+
+    /**
+     * The per-recipient cost: fetching the shared, pre-rendered lines
+     */
+    @Benchmark
+    public void assembleMessage(Blackhole blackhole) {
+        for (Text line : report.getMessageLines()) {
+            blackhole.consume(line);
+        }
+    }
+}
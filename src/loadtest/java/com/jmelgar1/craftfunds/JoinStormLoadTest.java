@@ -0,0 +1,404 @@
+package com.jmelgar1.craftfunds;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.text.Text;
+
+/**
+ * Join-storm load test. Seeds the embedded backend (H2 in MySQL mode) with a
+ * configurable number of donations, then replays a storm of player joins and
+ * /fund commands through the mod's own components: the same DatabaseService,
+ * FundingCache, JoinBatcher and RateLimiter the server wires up, started the
+ * same way, with only the sending side stubbed. Stub players record when
+ * their message arrived, and a single thread ticking at 20 TPS stands in for
+ * the server thread.
+ *
+ * Runs in the current directory, which it treats as a scratch server
+ * directory: config/craftfunds.conf is overwritten and the database and
+ * snapshot are recreated on every run. Options are key=value arguments, see
+ * {@link Options}; ./gradlew loadTest forwards -Ploadtest.key=value.
+ */
+public final class JoinStormLoadTest {
+    private static final String DATABASE_PATH = "config/loadtest-db";
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final long TICK_MILLIS = 50;
+    private static final long SAMPLE_MILLIS = 5;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private static final LatencyHistogram JOIN = new LatencyHistogram("join -> message");
+    private static final LatencyHistogram FUND = new LatencyHistogram("/fund -> message");
+    private static final LatencyHistogram TICK = new LatencyHistogram("server tick");
+
+    private final Options options;
+    private final LongAdder throttledWhileLoading = new LongAdder();
+    private final LongAccumulator peakActiveConnections = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Load test settings, each overridable with a key=value argument
+     *
+     * @param players Players joining during the storm
+     * @param donations Donations seeded before the storm
+     * @param rampSeconds Joins are spread evenly over this many seconds
+     * @param fundPerPlayer /fund commands each player runs after joining
+     * @param durationSeconds /fund commands are spread over this many seconds after each join
+     * @param ingestPerSecond New donations stored per second during the storm, so refreshes see deltas
+     * @param poolSize database.pool.max.size
+     * @param refreshSeconds funding.refresh.interval.seconds
+     * @param joinWindowMillis join.batch.window.millis
+     * @param sendsPerTick join.max.sends.per.tick
+     * @param fundRatePerMinute fund.rate.per.minute
+     * @param fundBurst fund.burst
+     */
+    record Options(int players, int donations, int rampSeconds, int fundPerPlayer, int durationSeconds,
+                   int ingestPerSecond, int poolSize, int refreshSeconds, int joinWindowMillis, int sendsPerTick,
+                   int fundRatePerMinute, int fundBurst) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+            Options options = new Options(
+                take(values, "players", 500),
+                take(values, "donations", 100_000),
+                take(values, "ramp.seconds", 10),
+                take(values, "fund.per.player", 2),
+                take(values, "duration.seconds", 20),
+                take(values, "ingest.per.second", 5),
+                take(values, "pool.size", 4),
+                take(values, "refresh.seconds", 5),
+                take(values, "join.window.millis", 250),
+                take(values, "sends.per.tick", 20),
+                take(values, "fund.rate.per.minute", 6),
+                take(values, "fund.burst", 3));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown options " + values.keySet());
+            }
+            return options;
+        }
+
+        private static int take(Map<String, String> values, String key, int defaultValue) {
+            String value = values.remove(key);
+            if (value == null) {
+                return defaultValue;
+            }
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException(key + " must not be negative");
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * A simulated player; its fields are only touched on the server thread
+     */
+    private static final class StubPlayer {
+        private final UUID id;
+        private final String name;
+        private long joinedAtNanos;
+
+        private StubPlayer(int number) {
+            this.id = new UUID(0x4c4f4144L, number);
+            this.name = "Player" + number;
+        }
+    }
+
+    /**
+     * One /fund command, the recipient type of {@link FundCommand#serveFund}
+     */
+    private record FundRequest(StubPlayer player, long startNanos) {}
+
+    /**
+     * Stand-in for the server thread: runs submitted tasks and a tick every 50ms on one thread
+     */
+    private static final class ServerThread implements Executor {
+        private final ScheduledExecutorService thread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread server = new Thread(runnable, "LoadTest-Server");
+            server.setDaemon(true);
+            return server;
+        });
+
+        @Override
+        public void execute(Runnable task) {
+            thread.execute(task);
+        }
+    }
+
+    private JoinStormLoadTest(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        boolean completed = new JoinStormLoadTest(options).run();
+        System.exit(completed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        writeConfig();
+        CraftFundsConfig config = ConfigManager.getInstance().getConfig();
+
+        long seedStart = System.nanoTime();
+        seed(config);
+        System.out.printf("Seeded %,d donations in %.1fs%n", options.donations(), (System.nanoTime() - seedStart) / 1e9);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        // Wired and started in the same order as CraftFunds.onInitializeServer and SERVER_STARTED
+        DatabaseService databaseService = new DatabaseService();
+        FundingCache fundingCache = new FundingCache(databaseService, new SnapshotStore(), config.fundingRefreshIntervalSeconds());
+        fundingCache.loadPersistedSnapshot();
+        RateLimiter rateLimiter = new RateLimiter(config.fundRatePerMinute(), config.fundBurst());
+        ServerThread server = new ServerThread();
+
+        int expected = options.players() * (1 + options.fundPerPlayer());
+        CountDownLatch finished = new CountDownLatch(expected);
+        JoinBatcher<StubPlayer> joinBatcher = new JoinBatcher<>(fundingCache, joinRecipients(finished),
+            config.joinBatchWindowMillis(), config.joinMaxSendsPerTick());
+        MessageRecipients<FundRequest> fundRecipients = fundRecipients(finished);
+
+        ScheduledExecutorService background = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "LoadTest-Background");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleAtFixedRate(() -> peakActiveConnections.accumulate(databaseService.getActiveConnectionCount()),
+            0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        if (options.ingestPerSecond() > 0) {
+            Random ingestRandom = new Random(7);
+            background.scheduleAtFixedRate(() -> databaseService.withRepository(repository -> {
+                repository.insertDonations(List.of(randomDonation(ingestRandom, LocalDate.now())));
+                return null;
+            }), 0, 1_000_000 / options.ingestPerSecond(), TimeUnit.MICROSECONDS);
+        }
+
+        long stormStart = System.nanoTime();
+        databaseService.warmUp().whenComplete((idleConnections, throwable) -> fundingCache.start());
+        server.thread.scheduleAtFixedRate(() -> {
+            long start = System.nanoTime();
+            joinBatcher.tick(server);
+            TICK.recordSince(start);
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        schedulePlayers(server, joinBatcher, fundRecipients, fundingCache, rateLimiter);
+
+        long drainDeadlineSeconds = options.rampSeconds() + options.durationSeconds() + DRAIN_TIMEOUT_SECONDS;
+        boolean completed = finished.await(drainDeadlineSeconds, TimeUnit.SECONDS);
+        double stormSeconds = (System.nanoTime() - stormStart) / 1e9;
+
+        background.shutdownNow();
+        server.thread.shutdownNow();
+        fundingCache.close();
+        int peakThreads = threads.getPeakThreadCount();
+        databaseService.close();
+
+        report(completed, finished.getCount(), expected, stormSeconds, databaseService, config.poolMaxSize(),
+            threadsBefore, peakThreads);
+        return completed;
+    }
+
+    /**
+     * Points the mod at a fresh embedded database and applies the pool, join and /fund settings
+     */
+    private void writeConfig() throws IOException {
+        Path configDir = Paths.get("config");
+        Files.createDirectories(configDir);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(configDir, "{loadtest-db*,craftfunds-snapshot.dat}")) {
+            for (Path file : stale) {
+                Files.delete(file);
+            }
+        }
+
+        String conf = String.join("\n",
+            "# Written by JoinStormLoadTest; overwritten on every run",
+            "database.backend=embedded",
+            "database.embedded.path=" + DATABASE_PATH,
+            "database.pool.max.size=" + options.poolSize(),
+            "funding.refresh.interval.seconds=" + options.refreshSeconds(),
+            "join.batch.window.millis=" + options.joinWindowMillis(),
+            "join.max.sends.per.tick=" + options.sendsPerTick(),
+            "fund.rate.per.minute=" + options.fundRatePerMinute(),
+            "fund.burst=" + options.fundBurst(),
+            "");
+        Files.writeString(configDir.resolve("craftfunds.conf"), conf);
+    }
+
+    /**
+     * Stores the seed donations through the repository's batched insert and
+     * sets total spending to 90% of them, so the excess walk does real work
+     */
+    private void seed(CraftFundsConfig config) throws SQLException {
+        Random random = new Random(42);
+        LocalDate first = LocalDate.now().minusYears(3);
+        long days = first.until(LocalDate.now(), ChronoUnit.DAYS);
+        long totalCents = 0;
+
+        try (DatabaseService seeder = new DatabaseService()) {
+            List<DonationRepository.NewDonation> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = 0; i < options.donations(); i++) {
+                LocalDate date = first.plusDays(days * i / Math.max(1, options.donations()));
+                DonationRepository.NewDonation donation = randomDonation(random, date);
+                totalCents += donation.amountCents();
+                batch.add(donation);
+                if (batch.size() == SEED_BATCH_SIZE || i == options.donations() - 1) {
+                    List<DonationRepository.NewDonation> chunk = List.copyOf(batch);
+                    seeder.withRepository(repository -> {
+                        repository.insertDonations(chunk);
+                        return null;
+                    }).join();
+                    batch.clear();
+                }
+            }
+            // Creates the schema even when no donations are seeded
+            seeder.withRepository(DonationRepository::findTotalSpending).join();
+
+            // The mod never writes spending, so it is set directly
+            String url = "jdbc:h2:file:" + Paths.get(config.embeddedDatabasePath()).toAbsolutePath()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+            try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                 PreparedStatement stmt = connection.prepareStatement("INSERT INTO total_spending (total_spent) VALUES (?)")) {
+                stmt.setBigDecimal(1, Money.toDecimal(totalCents * 9 / 10));
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static DonationRepository.NewDonation randomDonation(Random random, LocalDate date) {
+        long[] amounts = { 100, 250, 500, 1000, 1500, 2000, 499, 1234 };
+        return new DonationRepository.NewDonation("Donor" + random.nextInt(2000),
+            amounts[random.nextInt(amounts.length)], ExchangeRates.GOAL_CURRENCY, date);
+    }
+
+    /**
+     * Schedules every join, and each player's /fund commands, on the server thread
+     */
+    private void schedulePlayers(ServerThread server, JoinBatcher<StubPlayer> joinBatcher,
+                                 MessageRecipients<FundRequest> fundRecipients, FundingCache fundingCache,
+                                 RateLimiter rateLimiter) {
+        Random random = new Random(1);
+        long rampMillis = options.rampSeconds() * 1000L;
+        long durationMillis = Math.max(1, options.durationSeconds() * 1000L);
+        for (int i = 0; i < options.players(); i++) {
+            StubPlayer player = new StubPlayer(i);
+            long joinAtMillis = rampMillis * i / Math.max(1, options.players());
+            server.thread.schedule(() -> {
+                player.joinedAtNanos = System.nanoTime();
+                joinBatcher.enqueue(player);
+            }, joinAtMillis, TimeUnit.MILLISECONDS);
+
+            for (int k = 0; k < options.fundPerPlayer(); k++) {
+                long fundAtMillis = joinAtMillis + (long) (random.nextDouble() * durationMillis);
+                server.thread.schedule(() -> FundCommand.serveFund(new FundRequest(player, System.nanoTime()),
+                    player.id, player.name, fundRecipients, server, fundingCache, rateLimiter), fundAtMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static MessageRecipients<StubPlayer> joinRecipients(CountDownLatch finished) {
+        return new MessageRecipients<>() {
+            @Override
+            public boolean isDisconnected(StubPlayer player) {
+                return false;
+            }
+
+            @Override
+            public void send(StubPlayer player, FundingReport report) {
+                report.getMessageLines();
+                JOIN.recordSince(player.joinedAtNanos);
+                finished.countDown();
+            }
+
+            @Override
+            public void sendMessage(StubPlayer player, Text message) {
+                // The join path only sends single lines on failure
+                JOIN.recordError();
+                finished.countDown();
+            }
+        };
+    }
+
+    private MessageRecipients<FundRequest> fundRecipients(CountDownLatch finished) {
+        return new MessageRecipients<>() {
+            @Override
+            public boolean isDisconnected(FundRequest request) {
+                return false;
+            }
+
+            @Override
+            public void send(FundRequest request, FundingReport report) {
+                report.getMessageLines();
+                FUND.recordSince(request.startNanos());
+                finished.countDown();
+            }
+
+            @Override
+            public void sendMessage(FundRequest request, Text message) {
+                if (message == FundCommand.LOADING_MESSAGE) {
+                    return;
+                }
+                if (message == FundCommand.STILL_LOADING_MESSAGE) {
+                    throttledWhileLoading.increment();
+                } else {
+                    FUND.recordError();
+                }
+                finished.countDown();
+            }
+        };
+    }
+
+    private void report(boolean completed, long unfinished, int expected, double stormSeconds,
+                        DatabaseService databaseService, int poolSize, int threadsBefore, int peakThreads) {
+        System.out.printf("%n=== Join storm: %,d players, %,d /fund commands, %,d seeded donations, pool of %d ===%n",
+            options.players(), options.players() * options.fundPerPlayer(), options.donations(), poolSize);
+        if (completed) {
+            System.out.printf("All %,d messages delivered in %.1fs (%.1f messages/s)%n",
+                expected, stormSeconds, expected / stormSeconds);
+        } else {
+            System.out.printf("TIMED OUT: %,d of %,d messages undelivered after %.1fs%n", unfinished, expected, stormSeconds);
+        }
+        for (LatencyHistogram histogram : new LatencyHistogram[] { JOIN, FUND, TICK }) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            System.out.printf("%-18s n=%,d failed=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                snapshot.name(), snapshot.count(), snapshot.errors(), snapshot.p50() / 1000.0,
+                snapshot.p95() / 1000.0, snapshot.p99() / 1000.0, snapshot.max() / 1000.0);
+        }
+        System.out.printf("/fund throttled: %,d (%,d before the first snapshot)%n",
+            CraftFundsMetrics.FUND_THROTTLED.sum(), throttledWhileLoading.sum());
+        System.out.printf("report computations: %,d queried the database, %,d coalesced%n",
+            databaseService.getExecutedQueryCount(), databaseService.getCoalescedCallCount());
+        System.out.printf("db connections: peak %d borrowed of %d%n", peakActiveConnections.get(), poolSize);
+        System.out.printf("threads: %d before start, peak %d%n", threadsBefore, peakThreads);
+        System.out.println("--- CraftFunds metrics ---");
+        CraftFundsMetrics.describe().forEach(System.out::println);
+    }
+}
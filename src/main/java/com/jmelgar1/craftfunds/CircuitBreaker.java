@@ -0,0 +1,112 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker guarding calls to the database.
+ *
+ * After a run of consecutive failures the circuit opens and calls fail fast
+ * without touching the network. Once the open period has elapsed a single
+ * probe call is let through (half-open): success closes the circuit, failure
+ * re-opens it with the open period doubled, up to a maximum.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long currentOpenMillis;
+    private long openUntilMillis = 0;
+
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder transitions = new LongAdder();
+
+    public CircuitBreaker(String name, int failureThreshold, long baseOpenMillis, long maxOpenMillis) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseOpenMillis = Math.max(1, baseOpenMillis);
+        this.maxOpenMillis = Math.max(this.baseOpenMillis, maxOpenMillis);
+        this.currentOpenMillis = this.baseOpenMillis;
+    }
+
+    /**
+     * Asks permission to make a call. While open, calls are rejected until the
+     * open period elapses, at which point exactly one probe is allowed.
+     *
+     * @return true if the call may proceed; the caller must then report
+     *         {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() >= openUntilMillis) {
+                    transitionTo(State.HALF_OPEN, "probing after " + currentOpenMillis + " ms");
+                    return true;
+                }
+                rejectedCalls.increment();
+                return false;
+            case HALF_OPEN:
+            default:
+                // A probe is already in flight
+                rejectedCalls.increment();
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        currentOpenMillis = baseOpenMillis;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED, "probe succeeded");
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            // Probe failed: back off exponentially before the next one
+            currentOpenMillis = Math.min(currentOpenMillis * 2, maxOpenMillis);
+            open("probe failed");
+            return;
+        }
+
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open(consecutiveFailures + " consecutive failures");
+        }
+    }
+
+    private void open(String reason) {
+        openUntilMillis = System.currentTimeMillis() + currentOpenMillis;
+        transitionTo(State.OPEN, reason + ", failing fast for " + currentOpenMillis + " ms");
+    }
+
+    private void transitionTo(State newState, String reason) {
+        State oldState = state;
+        state = newState;
+        transitions.increment();
+        if (newState == State.OPEN) {
+            CraftFunds.LOGGER.warn("Circuit '{}' {} -> {}: {}", name, oldState, newState, reason);
+        } else {
+            CraftFunds.LOGGER.info("Circuit '{}' {} -> {}: {}", name, oldState, newState, reason);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getRejectedCallCount() {
+        return rejectedCalls.sum();
+    }
+
+    public long getTransitionCount() {
+        return transitions.sum();
+    }
+}
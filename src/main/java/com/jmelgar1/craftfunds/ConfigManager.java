@@ -1,122 +1,233 @@
 package com.jmelgar1.craftfunds;
 
 import java.io.*;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
+/**
+ * Loads craftfunds.conf into an immutable {@link CraftFundsConfig} and keeps
+ * it up to date.
+ *
+ * The file is parsed once per load and the result is published through a
+ * volatile reference, so {@link #getConfig()} is safe and cheap from any
+ * thread. A file watcher reloads the configuration when the file changes and
+ * notifies registered listeners with the old and new snapshots.
+ */
 public class ConfigManager {
     private static final String CONFIG_FILE_NAME = "craftfunds.conf";
     private static final String CONFIG_DIR = "config";
+    private static final long RELOAD_DEBOUNCE_MILLIS = 250;
     
-    private static ConfigManager instance;
-    private Properties config;
-    private Path configPath;
+    private final Path configPath;
+    private final Properties defaults;
+    private final List<BiConsumer<CraftFundsConfig, CraftFundsConfig>> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile CraftFundsConfig config;
+    private WatchService watchService;
     
     private ConfigManager() {
-        this.config = new Properties();
         this.configPath = Paths.get(CONFIG_DIR, CONFIG_FILE_NAME);
-        loadConfig();
+        this.defaults = new Properties();
+        setDefaultValues(defaults);
+        this.config = loadConfig();
+    }
+    
+    private static final class Holder {
+        private static final ConfigManager INSTANCE = new ConfigManager();
     }
     
     public static ConfigManager getInstance() {
-        if (instance == null) {
-            instance = new ConfigManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
     
-    private void loadConfig() {
+    /**
+     * @return the current configuration snapshot
+     */
+    public CraftFundsConfig getConfig() {
+        return config;
+    }
+    
+    /**
+     * Registers a listener called with the old and new configuration whenever a
+     * reload changes any value. Listeners run on the thread that performed the reload.
+     *
+     * @param listener The listener to notify
+     */
+    public void addReloadListener(BiConsumer<CraftFundsConfig, CraftFundsConfig> listener) {
+        reloadListeners.add(listener);
+    }
+    
+    private CraftFundsConfig loadConfig() {
+        Properties props = new Properties(defaults);
         try {
             if (!Files.exists(configPath)) {
                 createDefaultConfig();
             }
             
             try (InputStream input = Files.newInputStream(configPath)) {
-                config.load(input);
+                props.load(input);
                 CraftFunds.LOGGER.info("Configuration loaded from {}", configPath);
             }
-            
+        
         } catch (IOException e) {
             CraftFunds.LOGGER.error("Failed to load configuration file", e);
-            loadDefaultValues();
+            return loadDefaultValues();
         }
+        return CraftFundsConfig.fromProperties(props, defaults);
     }
     
-    private void createDefaultConfig() {
-        try {
-            Files.createDirectories(configPath.getParent());
-            
-            Properties defaultConfig = new Properties();
-            setDefaultValues(defaultConfig);
-            
-            try (OutputStream output = Files.newOutputStream(configPath)) {
-                defaultConfig.store(output, "CraftFunds Configuration File");
-            }
-            
-            this.config = defaultConfig;
-            CraftFunds.LOGGER.info("Created default configuration file at {}", configPath);
-            
-        } catch (IOException e) {
-            CraftFunds.LOGGER.error("Failed to create default configuration file", e);
-            loadDefaultValues();
+    private void createDefaultConfig() throws IOException {
+        Files.createDirectories(configPath.getParent());
+        
+        try (OutputStream output = Files.newOutputStream(configPath)) {
+            defaults.store(output, "CraftFunds Configuration File");
         }
+        
+        CraftFunds.LOGGER.info("Created default configuration file at {}", configPath);
     }
     
     private void setDefaultValues(Properties props) {
+        props.setProperty("database.backend", "mysql");
+        props.setProperty("database.embedded.path", "config/craftfunds-db");
         props.setProperty("database.url", "jdbc:mysql://localhost:3306/craftfunds");
         props.setProperty("database.username", "your_username_here");
         props.setProperty("database.password", "your_password_here");
         props.setProperty("database.timeout.seconds", "10");
+        props.setProperty("database.pool.max.size", "4");
+        props.setProperty("database.pool.min.idle", "1");
+        props.setProperty("database.pool.idle.timeout.seconds", "300");
+        props.setProperty("database.pool.max.lifetime.seconds", "1800");
+        props.setProperty("database.pool.validation.timeout.seconds", "3");
+        props.setProperty("database.executor.queue.size", "100");
+        props.setProperty("database.circuit.failure.threshold", "3");
+        props.setProperty("database.circuit.open.seconds", "5");
+        props.setProperty("database.circuit.max.open.seconds", "300");
+        props.setProperty("funding.refresh.interval.seconds", "60");
+        props.setProperty("funding.goal", "15");
+        props.setProperty("funding.ledger.reconcile.interval.minutes", "60");
+        props.setProperty("funding.fx.rates", "");
+        props.setProperty("funding.fx.refresh.interval.minutes", "60");
+        props.setProperty("join.batch.window.millis", "250");
+        props.setProperty("join.max.sends.per.tick", "20");
+        props.setProperty("metrics.log.interval.seconds", "0");
+        props.setProperty("fund.rate.per.minute", "6");
+        props.setProperty("fund.burst", "3");
+        props.setProperty("broadcast.interval.minutes", "0");
+        props.setProperty("bossbar.enabled", "false");
+        props.setProperty("webhook.enabled", "false");
+        props.setProperty("webhook.bind.address", "127.0.0.1");
+        props.setProperty("webhook.port", "8765");
+        props.setProperty("webhook.secret", "");
+        props.setProperty("webhook.batch.max.size", "100");
+        props.setProperty("webhook.batch.delay.millis", "200");
+        props.setProperty("import.batch.size", "1000");
+        props.setProperty("import.date.format", "M/d/yyyy");
         props.setProperty("paypal.donation.url", "https://www.paypal.com/ncp/payment/QNL7HQGENJB74");
     }
     
-    private void loadDefaultValues() {
-        config.clear();
-        setDefaultValues(config);
+    private CraftFundsConfig loadDefaultValues() {
         CraftFunds.LOGGER.warn("Loaded default configuration values due to file read error");
+        return CraftFundsConfig.fromProperties(new Properties(defaults), defaults);
     }
     
-    public String getDatabaseUrl() {
-        return config.getProperty("database.url", "jdbc:mysql://localhost:3306/craftfunds");
-    }
-    
-    public String getDatabaseUsername() {
-        return config.getProperty("database.username", "your_username_here");
-    }
-    
-    public String getDatabasePassword() {
-        return config.getProperty("database.password", "your_password_here");
+    /**
+     * Re-reads the configuration file and publishes the result. Listeners are
+     * only notified if a value actually changed.
+     */
+    public synchronized void reloadConfig() {
+        CraftFunds.LOGGER.info("Reloading configuration...");
+        CraftFundsConfig previous = config;
+        CraftFundsConfig reloaded = loadConfig();
+        if (reloaded.equals(previous)) {
+            CraftFunds.LOGGER.info("Configuration unchanged");
+            return;
+        }
+        
+        config = reloaded;
+        for (BiConsumer<CraftFundsConfig, CraftFundsConfig> listener : reloadListeners) {
+            try {
+                listener.accept(previous, reloaded);
+            } catch (RuntimeException e) {
+                CraftFunds.LOGGER.error("Error applying reloaded configuration", e);
+            }
+        }
     }
     
-    public int getDatabaseTimeoutSeconds() {
+    /**
+     * Starts a background thread that reloads the configuration whenever
+     * craftfunds.conf is created or modified.
+     */
+    public synchronized void startWatching() {
+        if (watchService != null) {
+            return;
+        }
+        
         try {
-            return Integer.parseInt(config.getProperty("database.timeout.seconds", "10"));
-        } catch (NumberFormatException e) {
-            CraftFunds.LOGGER.warn("Invalid database timeout value in config, using default of 10 seconds");
-            return 10;
+            Path directory = configPath.toAbsolutePath().getParent();
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            CraftFunds.LOGGER.error("Failed to watch configuration file for changes", e);
+            return;
         }
+        
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watchLoop(service), "CraftFunds-ConfigWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        CraftFunds.LOGGER.info("Watching {} for changes", configPath);
     }
     
-    public String getPayPalDonationUrl() {
-        return config.getProperty("paypal.donation.url", "https://www.paypal.com/ncp/payment/QNL7HQGENJB74");
-    }
-    
-    public boolean hasValidDatabaseCredentials() {
-        String username = getDatabaseUsername();
-        String password = getDatabasePassword();
-        String url = getDatabaseUrl();
-        
-        return !username.equals("your_username_here") &&
-               !password.equals("your_password_here") &&
-               !username.trim().isEmpty() &&
-               !password.trim().isEmpty() &&
-               !url.trim().isEmpty();
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean configChanged = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path changed && changed.getFileName().toString().equals(CONFIG_FILE_NAME)) {
+                        configChanged = true;
+                    }
+                }
+                key.reset();
+                
+                if (configChanged) {
+                    // Editors often save a file in several steps; let them finish first
+                    Thread.sleep(RELOAD_DEBOUNCE_MILLIS);
+                    WatchKey pending;
+                    while ((pending = service.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+                    reloadConfig();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher stopped
+        }
     }
     
-    public void reloadConfig() {
-        CraftFunds.LOGGER.info("Reloading configuration...");
-        loadConfig();
+    /**
+     * Stops watching the configuration file
+     */
+    public synchronized void stopWatching() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            CraftFunds.LOGGER.debug("Error closing configuration watcher: {}", e.getMessage());
+        }
+        watchService = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,274 @@
+package com.jmelgar1.craftfunds;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Connections handed out by {@link #getConnection()} are proxies whose close()
+ * returns the physical connection to the pool instead of closing it. Idle
+ * connections are validated before reuse, unless they were returned only
+ * moments ago, evicted after the configured idle timeout and retired once they
+ * exceed the maximum lifetime.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long HOUSEKEEPING_INTERVAL_SECONDS = 30;
+    // A connection returned this recently was just working; pinging it again would double the round trips of back-to-back queries
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long acquireTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String username, String password, int maxSize, int minIdle,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long acquireTimeoutMillis,
+                          int validationTimeoutSeconds) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(this.maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CraftFunds-PoolHousekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::evictIdle,
+            HOUSEKEEPING_INTERVAL_SECONDS, HOUSEKEEPING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no valid idle
+     * connection is available. Blocks for at most the acquire timeout when the
+     * pool is exhausted.
+     *
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws SQLException if the pool is closed, exhausted or the database is unreachable
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out waiting for a pooled database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled database connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                long now = System.currentTimeMillis();
+                if (isExpired(pooled, now) || (now - pooled.lastUsed >= VALIDATION_BYPASS_MILLIS && !isValid(pooled))) {
+                    pooled.closeQuietly();
+                    continue;
+                }
+                CraftFundsMetrics.POOL_HITS.increment();
+                return pooled.lease();
+            }
+
+            CraftFundsMetrics.POOL_MISSES.increment();
+            CraftFunds.LOGGER.debug("Opening new pooled database connection");
+            return new PooledConnection(DriverManager.getConnection(url, username, password)).lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens connections until the minimum idle count, and at least one, are
+     * idle, so the first borrowers don't pay for connection setup
+     *
+     * @return the number of idle connections afterwards
+     * @throws SQLException if a connection cannot be opened
+     */
+    public int prefill() throws SQLException {
+        int target = Math.max(1, minIdle);
+        List<Connection> borrowed = new ArrayList<>(target);
+        try {
+            while (borrowed.size() < target) {
+                borrowed.add(getConnection());
+            }
+        } finally {
+            // Returning them is what puts them in the idle deque
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+        return idle.size();
+    }
+
+    /**
+     * @return the number of physical connections currently idle in the pool
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return the number of connections currently borrowed from the pool
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt >= maxLifetimeMillis;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || pooled.connection.isClosed() || isExpired(pooled, System.currentTimeMillis())) {
+                pooled.closeQuietly();
+                return;
+            }
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            CraftFunds.LOGGER.debug("Discarding pooled connection that failed to reset: {}", e.getMessage());
+            pooled.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooled = iterator.next();
+            boolean idleTooLong = now - pooled.lastUsed >= idleTimeoutMillis && idle.size() > minIdle;
+            if ((idleTooLong || isExpired(pooled, now)) && idle.remove(pooled)) {
+                pooled.closeQuietly();
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            CraftFunds.LOGGER.debug("Evicted {} idle database connection(s)", evicted);
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread. Connections
+     * that are currently borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closeQuietly();
+        }
+        CraftFunds.LOGGER.info("Database connection pool closed");
+    }
+
+    private final class PooledConnection {
+        private final Connection connection;
+        private final long createdAt;
+        private volatile long lastUsed;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsed = createdAt;
+        }
+
+        private Connection lease() {
+            AtomicBoolean returned = new AtomicBoolean(false);
+            InvocationHandler handler = (proxy, method, args) -> invoke(returned, proxy, method, args);
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+        }
+
+        private Object invoke(AtomicBoolean returned, Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + connection + "]";
+                default:
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                CraftFunds.LOGGER.debug("Error closing pooled connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -2,17 +2,15 @@ package com.jmelgar1.craftfunds;
 
 import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
-import net.minecraft.text.Text;
-import net.minecraft.text.HoverEvent;
-import net.minecraft.text.MutableText;
-import net.minecraft.util.Formatting;
+import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Main mod class for CraftFunds - A minimal Fabric server-side mod template.
@@ -29,19 +27,219 @@ public class CraftFunds implements DedicatedServerModInitializer {
     public static final String MOD_ID = "craftfunds";
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
     
+    /**
+     * Shared database service, kept for the lifetime of the server
+     */
+    private static DatabaseService databaseService;
+    
+    /**
+     * Shared funding snapshot served to /fund and the join hook
+     */
+    private static FundingCache fundingCache;
+    
+    /**
+     * Batches join-time fund messages so a burst of joins shares one report fetch
+     */
+    private static JoinBatcher<ServerPlayerEntity> joinBatcher;
+    
+    /**
+     * Periodic fund broadcasts and the optional fund progress boss bar
+     */
+    private static FundingBroadcaster fundingBroadcaster;
+    
+    /**
+     * Per-player throttle for /fund
+     */
+    private static RateLimiter fundRateLimiter;
+    
+    /**
+     * Pages through donation history for /fund history
+     */
+    private static DonationHistory donationHistory;
+    
+    /**
+     * Optional local HTTP endpoint for pushed donations, and the batcher behind it
+     */
+    private static DonationIngestor donationIngestor;
+    private static WebhookServer webhookServer;
+    
+    /**
+     * Backfills donations from CSV exports for /craftfunds import
+     */
+    private static DonationImporter donationImporter;
+    
     @Override
     public void onInitializeServer() {
         LOGGER.info("CraftFunds mod initialized on server side!");
         
+        CraftFundsConfig config = ConfigManager.getInstance().getConfig();
+        databaseService = new DatabaseService();
+        fundingCache = new FundingCache(databaseService, new SnapshotStore(), config.fundingRefreshIntervalSeconds());
+        
+        // Serve the last known snapshot from disk until the first database refresh completes
+        fundingCache.loadPersistedSnapshot();
+        joinBatcher = new JoinBatcher<>(fundingCache, MessageRecipients.PLAYERS, config.joinBatchWindowMillis(), config.joinMaxSendsPerTick());
+        fundingBroadcaster = new FundingBroadcaster(fundingCache, joinBatcher, config);
+        fundRateLimiter = new RateLimiter(config.fundRatePerMinute(), config.fundBurst());
+        donationHistory = new DonationHistory(databaseService);
+        donationImporter = new DonationImporter(databaseService, fundingCache, donationHistory);
+        
+        // Apply edits to craftfunds.conf without a restart
+        ConfigManager.getInstance().addReloadListener(CraftFunds::onConfigReloaded);
+        
+        // Once the server is up, load the driver and fill the pool off the server thread, then compute
+        // the first snapshot, so the first player to join is served from memory like everyone after
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            databaseService.warmUp().whenComplete((idleConnections, throwable) -> {
+                if (throwable != null) {
+                    Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                    LOGGER.warn("Database warm-up failed, the first refresh will retry: {}", cause.getMessage());
+                }
+                fundingCache.start();
+            });
+            CraftFundsMetrics.startPeriodicLogging(ConfigManager.getInstance().getConfig().metricsLogIntervalSeconds());
+            startWebhook(ConfigManager.getInstance().getConfig());
+            ConfigManager.getInstance().startWatching();
+        });
+        
+        // Stop refreshing and release pooled database connections when the server shuts down
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            LOGGER.info("Server stopping, closing CraftFunds database connections");
+            ConfigManager.getInstance().stopWatching();
+            donationImporter.cancel();
+            stopWebhook();
+            CraftFundsMetrics.stopPeriodicLogging();
+            fundingBroadcaster.clear();
+            joinBatcher.clear();
+            fundingCache.close();
+            databaseService.close();
+        });
+        
         // Register commands
         CommandRegistrationCallback.EVENT.register(this::registerCommands);
         
         // Register player join event
         ServerPlayConnectionEvents.JOIN.register(this::onPlayerJoin);
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> fundingBroadcaster.onPlayerLeave(handler.getPlayer()));
+        
+        // Update the boss bar, queue due broadcasts, then deliver queued messages at the end of each tick
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            fundingBroadcaster.tick(server);
+            joinBatcher.tick(server);
+        });
         
         LOGGER.info("CraftFunds commands and events registered successfully!");
     }
     
+    /**
+     * @return the shared, server-lifetime database service
+     */
+    public static DatabaseService getDatabaseService() {
+        return databaseService;
+    }
+    
+    /**
+     * @return the shared funding snapshot cache
+     */
+    public static FundingCache getFundingCache() {
+        return fundingCache;
+    }
+    
+    /**
+     * @return the donation history pager
+     */
+    public static DonationHistory getDonationHistory() {
+        return donationHistory;
+    }
+    
+    /**
+     * @return the per-player /fund throttle
+     */
+    public static RateLimiter getFundRateLimiter() {
+        return fundRateLimiter;
+    }
+    
+    /**
+     * @return the CSV donation importer
+     */
+    public static DonationImporter getDonationImporter() {
+        return donationImporter;
+    }
+    
+    /**
+     * Applies a reloaded configuration to the running components
+     * 
+     * @param previous The configuration before the reload
+     * @param updated The newly loaded configuration
+     */
+    private static void onConfigReloaded(CraftFundsConfig previous, CraftFundsConfig updated) {
+        if (databaseService.reconfigure(previous, updated)) {
+            // The old snapshot came from a different database; replace it as soon as possible
+            fundingCache.refresh();
+            donationHistory.clear();
+        }
+        fundingCache.setRefreshIntervalSeconds(updated.fundingRefreshIntervalSeconds());
+        joinBatcher.reconfigure(updated.joinBatchWindowMillis(), updated.joinMaxSendsPerTick());
+        fundingBroadcaster.reconfigure(updated);
+        fundRateLimiter.reconfigure(updated.fundRatePerMinute(), updated.fundBurst());
+        if (previous.fundingGoalCents() != updated.fundingGoalCents()) {
+            // Rebuild the snapshot so its rendered lines and the boss bar use the new goal
+            fundingCache.refresh();
+        }
+        
+        if (previous.metricsLogIntervalSeconds() != updated.metricsLogIntervalSeconds()) {
+            CraftFundsMetrics.stopPeriodicLogging();
+            CraftFundsMetrics.startPeriodicLogging(updated.metricsLogIntervalSeconds());
+        }
+        if (!previous.sameWebhookSettings(updated)) {
+            stopWebhook();
+            startWebhook(updated);
+        }
+        LOGGER.info("Applied reloaded CraftFunds configuration");
+    }
+    
+    /**
+     * Starts the donation webhook if it is enabled in the configuration
+     * 
+     * @param config The configuration to start it with
+     */
+    private static synchronized void startWebhook(CraftFundsConfig config) {
+        if (!config.webhookEnabled()) {
+            return;
+        }
+        
+        donationIngestor = new DonationIngestor(databaseService, fundingCache,
+            config.webhookBatchMaxSize(), config.webhookBatchDelayMillis(), config.webhookCommitTimeoutMillis());
+        try {
+            webhookServer = new WebhookServer(donationIngestor, config.webhookBindAddress(),
+                config.webhookPort(), config.webhookSecret());
+            webhookServer.start();
+        } catch (IOException | RuntimeException e) {
+            // An unresolvable bind address surfaces as an unchecked exception; it must not abort server startup
+            LOGGER.error("Failed to start donation webhook on {}:{}", config.webhookBindAddress(), config.webhookPort(), e);
+            if (webhookServer != null) {
+                webhookServer.close();
+                webhookServer = null;
+            }
+            donationIngestor.close();
+            donationIngestor = null;
+        }
+    }
+    
+    /**
+     * Stops the donation webhook, storing any donations it has already accepted
+     */
+    private static synchronized void stopWebhook() {
+        if (webhookServer != null) {
+            webhookServer.close();
+            webhookServer = null;
+        }
+        if (donationIngestor != null) {
+            donationIngestor.close();
+            donationIngestor = null;
+        }
+    }
+    
     /**
      * Registers all CraftFunds commands
      * 
@@ -57,12 +255,13 @@ public class CraftFunds implements DedicatedServerModInitializer {
         
         FundCommand.register(dispatcher);
         DonateCommand.register(dispatcher);
+        CraftFundsCommand.register(dispatcher);
         
-        LOGGER.info("Successfully registered /fund and /donate commands");
+        LOGGER.info("Successfully registered /fund, /donate and /craftfunds commands");
     }
     
     /**
-     * Handles player join events by showing the funding information
+     * Handles player join events by queueing the funding information for the player
      * 
      * @param handler The network handler
      * @param sender The packet sender
@@ -72,70 +271,8 @@ public class CraftFunds implements DedicatedServerModInitializer {
         ServerPlayerEntity player = handler.getPlayer();
         LOGGER.info("Player {} joined, showing funding information", player.getName().getString());
         
-        // Create database service and query for funding totals
-        DatabaseService databaseService = new DatabaseService();
-        
-        // Query database asynchronously
-        CompletableFuture<DatabaseService.FundingReport> futureResult = databaseService.getMonthlyFundingTotal();
-        
-        futureResult.thenAccept(report -> {
-            // Send header message
-            player.sendMessage(Text.literal("=== Server Fund ===").formatted(Formatting.DARK_GREEN), false);
-            
-            // Create hover text component with conditional coloring
-            if (report.summary.contains("donation)") || report.summary.contains("donations)")) {
-                // Use the net amount for conditional coloring
-                double netAmount = report.netAmount;
-                
-                // Determine color based on net amount (< 15 = red, >= 15 = gold)
-                Formatting amountColor = netAmount < 15 ? Formatting.RED : Formatting.GOLD;
-                
-                // Find the part with donation count and make it hoverable
-                String[] parts = report.summary.split("\\(");
-                if (parts.length > 1) {
-                    // Remove existing color codes and apply new color
-                    String beforeHover = parts[0].replaceAll("§.", "");
-                    String hoverPart = "(" + parts[1];
-                    
-                    MutableText finalMessage = Text.literal(beforeHover)
-                        .formatted(amountColor)
-                        .append(Text.literal(hoverPart)
-                            .styled(style -> style
-                            .withColor(Formatting.GRAY)
-                            .withHoverEvent(new HoverEvent.ShowText(report.donationDetails))
-                            ));
-                    
-                    player.sendMessage(finalMessage, false);
-                } else {
-                    // Fallback if parsing fails
-                    MutableText message = Text.literal(report.summary.replaceAll("§.", ""))
-                        .formatted(amountColor);
-                    player.sendMessage(message, false);
-                }
-            } else {
-                // No donations case
-                player.sendMessage(Text.literal(report.summary), false);
-            }
-            
-            // Calculate and display months covered or funding goal message
-            if (report.netAmount < 15) {
-                player.sendMessage(Text.literal("§cServer is below the funding goal, use /donate"), false);
-            } else {
-                int monthsCovered = (int) Math.floor(report.netAmount / 15.0);
-                if (monthsCovered > 0) {
-                    String monthText = monthsCovered == 1 ? "month" : "months";
-                    player.sendMessage(Text.literal("§7Covers " + monthsCovered + " " + monthText + " of server costs"), false);
-                    player.sendMessage(Text.literal("§7Use '/donate' to fund the server"), false);
-                }
-            }
-            
-            LOGGER.info("Funding information displayed to player {} on join", player.getName().getString());
-        }).exceptionally(throwable -> {
-            // Handle any errors that occurred during database query
-            LOGGER.error("Error retrieving funding data for player {} on join", 
-                player.getName().getString(), throwable);
-            player.sendMessage(Text.literal("§cFailed to retrieve funding information."), false);
-            return null;
-        });
+        // Queue the player; everyone joining in the same window shares one report fetch
+        joinBatcher.enqueue(player);
+        fundingBroadcaster.onPlayerJoin(player);
     }
 }
\ No newline at end of file
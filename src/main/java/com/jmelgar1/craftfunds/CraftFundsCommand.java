@@ -0,0 +1,111 @@
+package com.jmelgar1.craftfunds;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import java.nio.file.Path;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+public class CraftFundsCommand {
+
+    /**
+     * Registers the operator-only /craftfunds command with the command dispatcher.
+     *
+     * Subcommands:
+     * - stats: shows latency percentiles, error counts and cache/pool hit rates
+     * - import <file>: backfills donations from a CSV export in the server directory
+     *
+     * @param dispatcher The command dispatcher to register with
+     */
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(
+            CommandManager.literal("craftfunds")
+                .requires(source -> source.hasPermissionLevel(2)) // Operators only
+                .then(CommandManager.literal("stats")
+                    .executes(CraftFundsCommand::executeStats))
+                .then(CommandManager.literal("import")
+                    .then(CommandManager.argument("file", StringArgumentType.greedyString())
+                        .executes(context -> executeImport(context, StringArgumentType.getString(context, "file")))))
+        );
+    }
+
+    /**
+     * Executes /craftfunds stats, sending the current metrics to the command source.
+     *
+     * @param context The command execution context
+     * @return Command execution result (1 for success, 0 for failure)
+     */
+    private static int executeStats(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+
+        try {
+            source.sendMessage(Text.literal("=== CraftFunds Stats ===").formatted(Formatting.DARK_GREEN));
+            for (String line : CraftFundsMetrics.describe()) {
+                source.sendMessage(Text.literal(line).formatted(Formatting.GRAY));
+            }
+
+            DatabaseService databaseService = CraftFunds.getDatabaseService();
+            source.sendMessage(Text.literal(String.format("connections: active=%d idle=%d",
+                databaseService.getActiveConnectionCount(), databaseService.getIdleConnectionCount()))
+                .formatted(Formatting.GRAY));
+            CircuitBreaker circuitBreaker = databaseService.getCircuitBreaker();
+            source.sendMessage(Text.literal(String.format("circuit: state=%s transitions=%d rejected=%d",
+                circuitBreaker.getState(), circuitBreaker.getTransitionCount(), circuitBreaker.getRejectedCallCount()))
+                .formatted(Formatting.GRAY));
+            source.sendMessage(Text.literal(String.format("report requests: executed=%d coalesced=%d",
+                databaseService.getExecutedQueryCount(), databaseService.getCoalescedCallCount()))
+                .formatted(Formatting.GRAY));
+
+            CraftFunds.LOGGER.info("{} executed /craftfunds stats", source.getName());
+            return 1;
+
+        } catch (Exception e) {
+            CraftFunds.LOGGER.error("Error executing /craftfunds stats command", e);
+            source.sendMessage(Text.literal("§cAn error occurred while executing the command."));
+            return 0;
+        }
+    }
+
+    /**
+     * Executes /craftfunds import <file>, streaming the CSV into the database in the background.
+     * Progress is reported to the command source every few seconds until the import finishes.
+     *
+     * @param context The command execution context
+     * @param fileName The CSV file, relative to the server directory
+     * @return Command execution result (1 for success, 0 for failure)
+     */
+    private static int executeImport(CommandContext<ServerCommandSource> context, String fileName) {
+        ServerCommandSource source = context.getSource();
+
+        try {
+            Path file;
+            try {
+                file = DonationImporter.resolveImportFile(fileName);
+            } catch (IllegalArgumentException e) {
+                source.sendMessage(Text.literal(e.getMessage()).formatted(Formatting.RED));
+                return 0;
+            }
+
+            // Progress arrives on the import thread; messages must be sent from the server thread
+            MinecraftServer server = source.getServer();
+            boolean started = CraftFunds.getDonationImporter().start(file, ConfigManager.getInstance().getConfig(),
+                message -> server.execute(() -> source.sendMessage(Text.literal(message).formatted(Formatting.GRAY))));
+            if (!started) {
+                source.sendMessage(Text.literal("An import is already running").formatted(Formatting.RED));
+                return 0;
+            }
+
+            CraftFunds.LOGGER.info("{} started /craftfunds import {}", source.getName(), fileName);
+            return 1;
+
+        } catch (Exception e) {
+            CraftFunds.LOGGER.error("Error executing /craftfunds import command", e);
+            source.sendMessage(Text.literal("§cAn error occurred while executing the command."));
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.jmelgar1.craftfunds;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Immutable, fully parsed view of craftfunds.conf.
+ *
+ * A new instance is built on every (re)load and published atomically by
+ * {@link ConfigManager}, so readers on any thread always see a consistent set
+ * of values and never parse anything on the hot path.
+ */
+public record CraftFundsConfig(
+    DatabaseBackend databaseBackend,
+    String embeddedDatabasePath,
+    String databaseUrl,
+    String databaseUsername,
+    String databasePassword,
+    int databaseTimeoutSeconds,
+    int poolMaxSize,
+    int poolMinIdle,
+    int poolIdleTimeoutSeconds,
+    int poolMaxLifetimeSeconds,
+    int poolValidationTimeoutSeconds,
+    int databaseExecutorQueueSize,
+    int circuitFailureThreshold,
+    int circuitOpenSeconds,
+    int circuitMaxOpenSeconds,
+    int fundingRefreshIntervalSeconds,
+    long fundingGoalCents,
+    int ledgerReconcileIntervalMinutes,
+    Map<String, Double> exchangeRates,
+    int exchangeRateRefreshIntervalMinutes,
+    int joinBatchWindowMillis,
+    int joinMaxSendsPerTick,
+    int metricsLogIntervalSeconds,
+    int fundRatePerMinute,
+    int fundBurst,
+    int broadcastIntervalMinutes,
+    boolean bossBarEnabled,
+    boolean webhookEnabled,
+    String webhookBindAddress,
+    int webhookPort,
+    String webhookSecret,
+    int webhookBatchMaxSize,
+    int webhookBatchDelayMillis,
+    int importBatchSize,
+    String importDateFormat,
+    String payPalDonationUrl
+) {
+
+    /**
+     * Where donations are stored
+     */
+    public enum DatabaseBackend {
+        /** A remote MySQL server */
+        MYSQL,
+        /** A local H2 database file inside the server process */
+        EMBEDDED
+    }
+
+    /**
+     * Parses a loaded configuration. Missing keys fall back to the defaults
+     * backing the given properties; invalid numbers are logged and replaced by
+     * the default value.
+     *
+     * @param props The loaded properties, with defaults set as their fallback
+     * @param defaults The default values
+     * @return The parsed configuration
+     */
+    static CraftFundsConfig fromProperties(Properties props, Properties defaults) {
+        return new CraftFundsConfig(
+            parseBackend(props, defaults),
+            props.getProperty("database.embedded.path").trim(),
+            props.getProperty("database.url"),
+            props.getProperty("database.username"),
+            props.getProperty("database.password"),
+            parseNonNegativeInt(props, defaults, "database.timeout.seconds"),
+            parseNonNegativeInt(props, defaults, "database.pool.max.size"),
+            parseNonNegativeInt(props, defaults, "database.pool.min.idle"),
+            parseNonNegativeInt(props, defaults, "database.pool.idle.timeout.seconds"),
+            parseNonNegativeInt(props, defaults, "database.pool.max.lifetime.seconds"),
+            parseNonNegativeInt(props, defaults, "database.pool.validation.timeout.seconds"),
+            parseNonNegativeInt(props, defaults, "database.executor.queue.size"),
+            parseNonNegativeInt(props, defaults, "database.circuit.failure.threshold"),
+            parseNonNegativeInt(props, defaults, "database.circuit.open.seconds"),
+            parseNonNegativeInt(props, defaults, "database.circuit.max.open.seconds"),
+            parseNonNegativeInt(props, defaults, "funding.refresh.interval.seconds"),
+            parsePositiveMoney(props, defaults, "funding.goal"),
+            parseNonNegativeInt(props, defaults, "funding.ledger.reconcile.interval.minutes"),
+            parseExchangeRates(props.getProperty("funding.fx.rates")),
+            parseNonNegativeInt(props, defaults, "funding.fx.refresh.interval.minutes"),
+            parseNonNegativeInt(props, defaults, "join.batch.window.millis"),
+            parseNonNegativeInt(props, defaults, "join.max.sends.per.tick"),
+            parseNonNegativeInt(props, defaults, "metrics.log.interval.seconds"),
+            parseNonNegativeInt(props, defaults, "fund.rate.per.minute"),
+            parseNonNegativeInt(props, defaults, "fund.burst"),
+            parseNonNegativeInt(props, defaults, "broadcast.interval.minutes"),
+            parseBoolean(props, defaults, "bossbar.enabled"),
+            parseBoolean(props, defaults, "webhook.enabled"),
+            props.getProperty("webhook.bind.address").trim(),
+            parsePort(props, defaults, "webhook.port"),
+            props.getProperty("webhook.secret").trim(),
+            parseNonNegativeInt(props, defaults, "webhook.batch.max.size"),
+            parseNonNegativeInt(props, defaults, "webhook.batch.delay.millis"),
+            parseNonNegativeInt(props, defaults, "import.batch.size"),
+            parseDateFormat(props, defaults, "import.date.format"),
+            props.getProperty("paypal.donation.url")
+        );
+    }
+
+    private static DatabaseBackend parseBackend(Properties props, Properties defaults) {
+        String value = props.getProperty("database.backend").trim();
+        try {
+            return DatabaseBackend.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            String defaultValue = defaults.getProperty("database.backend");
+            CraftFunds.LOGGER.warn("Unknown database.backend '{}' in config, using {}", value, defaultValue);
+            return DatabaseBackend.valueOf(defaultValue.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Parses a comma separated list of CURRENCY:RATE pairs, e.g. "EUR:1.08,GBP:1.27".
+     * Malformed entries are logged and skipped.
+     */
+    private static Map<String, Double> parseExchangeRates(String value) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            try {
+                if (parts.length == 2) {
+                    double rate = Double.parseDouble(parts[1].trim());
+                    if (ExchangeRates.isValid(parts[0], rate)) {
+                        rates.put(ExchangeRates.normalize(parts[0]), rate);
+                        continue;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the warning below
+            }
+            CraftFunds.LOGGER.warn("Ignoring invalid exchange rate '{}' in funding.fx.rates", entry.trim());
+        }
+        return Map.copyOf(rates);
+    }
+
+    private static String parseDateFormat(Properties props, Properties defaults, String key) {
+        String value = props.getProperty(key).trim();
+        try {
+            DateTimeFormatter.ofPattern(value);
+            return value;
+        } catch (IllegalArgumentException e) {
+            String defaultValue = defaults.getProperty(key);
+            CraftFunds.LOGGER.warn("Invalid date pattern '{}' for {} in config, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static boolean parseBoolean(Properties props, Properties defaults, String key) {
+        String value = props.getProperty(key).trim();
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        String defaultValue = defaults.getProperty(key);
+        CraftFunds.LOGGER.warn("Invalid value for {} in config, using default of {}", key, defaultValue);
+        return Boolean.parseBoolean(defaultValue);
+    }
+
+    /**
+     * Parses an amount in currency units, e.g. "15" or "12.50", into cents
+     */
+    private static long parsePositiveMoney(Properties props, Properties defaults, String key) {
+        long defaultValue = Money.toCents(new BigDecimal(defaults.getProperty(key)));
+        try {
+            long value = Money.toCents(new BigDecimal(props.getProperty(key).trim()));
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            // Fall through to the warning below
+        }
+        CraftFunds.LOGGER.warn("Invalid value for {} in config, using default of {}", key, defaultValue);
+        return defaultValue;
+    }
+
+    private static int parsePort(Properties props, Properties defaults, String key) {
+        int defaultValue = Integer.parseInt(defaults.getProperty(key));
+        try {
+            int value = Integer.parseInt(props.getProperty(key).trim());
+            if (value >= 1 && value <= 65535) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the warning below
+        }
+        CraftFunds.LOGGER.warn("Invalid value for {} in config, using default of {}", key, defaultValue);
+        return defaultValue;
+    }
+
+    private static int parseNonNegativeInt(Properties props, Properties defaults, String key) {
+        int defaultValue = Integer.parseInt(defaults.getProperty(key));
+        try {
+            int value = Integer.parseInt(props.getProperty(key).trim());
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the warning below
+        }
+        CraftFunds.LOGGER.warn("Invalid value for {} in config, using default of {}", key, defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * @return true if the configured backend has everything it needs to connect
+     */
+    public boolean isDatabaseConfigured() {
+        return databaseBackend == DatabaseBackend.EMBEDDED
+            ? !embeddedDatabasePath.isEmpty()
+            : hasValidDatabaseCredentials();
+    }
+
+    public boolean hasValidDatabaseCredentials() {
+        return !databaseUsername.equals("your_username_here") &&
+               !databasePassword.equals("your_password_here") &&
+               !databaseUsername.trim().isEmpty() &&
+               !databasePassword.trim().isEmpty() &&
+               !databaseUrl.trim().isEmpty();
+    }
+
+    /**
+     * @return true if both configurations open identical connection pools
+     */
+    public boolean sameConnectionSettings(CraftFundsConfig other) {
+        return databaseBackend == other.databaseBackend
+            && Objects.equals(embeddedDatabasePath, other.embeddedDatabasePath)
+            && Objects.equals(databaseUrl, other.databaseUrl)
+            && Objects.equals(databaseUsername, other.databaseUsername)
+            && Objects.equals(databasePassword, other.databasePassword)
+            && databaseTimeoutSeconds == other.databaseTimeoutSeconds
+            && poolMaxSize == other.poolMaxSize
+            && poolMinIdle == other.poolMinIdle
+            && poolIdleTimeoutSeconds == other.poolIdleTimeoutSeconds
+            && poolMaxLifetimeSeconds == other.poolMaxLifetimeSeconds
+            && poolValidationTimeoutSeconds == other.poolValidationTimeoutSeconds;
+    }
+
+    /**
+     * @return true if both configurations build identical circuit breakers
+     */
+    public boolean sameCircuitSettings(CraftFundsConfig other) {
+        return circuitFailureThreshold == other.circuitFailureThreshold
+            && circuitOpenSeconds == other.circuitOpenSeconds
+            && circuitMaxOpenSeconds == other.circuitMaxOpenSeconds;
+    }
+
+    /**
+     * @return true if both configurations run identical webhook listeners
+     */
+    public boolean sameWebhookSettings(CraftFundsConfig other) {
+        return webhookEnabled == other.webhookEnabled
+            && Objects.equals(webhookBindAddress, other.webhookBindAddress)
+            && webhookPort == other.webhookPort
+            && Objects.equals(webhookSecret, other.webhookSecret)
+            && webhookBatchMaxSize == other.webhookBatchMaxSize
+            && webhookBatchDelayMillis == other.webhookBatchDelayMillis
+            && webhookCommitTimeoutMillis() == other.webhookCommitTimeoutMillis();
+    }
+
+    /**
+     * How long a pushed donation may take to commit before the webhook stops
+     * waiting: the batching delay, the wait for a pooled connection, validating
+     * an idle one or opening a new one, plus a second for the insert itself.
+     *
+     * @return the commit timeout in milliseconds
+     */
+    public long webhookCommitTimeoutMillis() {
+        return webhookBatchDelayMillis + (2L * databaseTimeoutSeconds + poolValidationTimeoutSeconds + 1) * 1000L;
+    }
+
+    @Override
+    public String toString() {
+        // Never log the database password
+        return "CraftFundsConfig[databaseBackend=" + databaseBackend + ", databaseUrl=" + databaseUrl + ", databaseUsername=" + databaseUsername + ", ...]";
+    }
+}
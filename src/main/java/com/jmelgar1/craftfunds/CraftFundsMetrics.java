@@ -0,0 +1,102 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide CraftFunds instrumentation.
+ *
+ * Every metric is a preallocated histogram or counter, so recording on the hot
+ * path is a handful of atomic increments with no allocation. Values are read
+ * by /craftfunds stats and, when enabled, by a periodic log line.
+ */
+public final class CraftFundsMetrics {
+    public static final LatencyHistogram CONNECTION_ACQUIRE = new LatencyHistogram("db.connection");
+    public static final LatencyHistogram QUERY_SPENDING = new LatencyHistogram("db.query.spending");
+    public static final LatencyHistogram QUERY_LEDGER_FULL = new LatencyHistogram("db.query.ledger.full");
+    public static final LatencyHistogram QUERY_LEDGER_DELTA = new LatencyHistogram("db.query.ledger.delta");
+    public static final LatencyHistogram REPORT_COMPUTE = new LatencyHistogram("report.compute");
+    public static final LatencyHistogram REPORT_RENDER = new LatencyHistogram("report.render");
+    public static final LatencyHistogram MESSAGE_DELIVERY = new LatencyHistogram("message.delivery");
+
+    private static final LatencyHistogram[] HISTOGRAMS = {
+        CONNECTION_ACQUIRE, QUERY_SPENDING, QUERY_LEDGER_FULL, QUERY_LEDGER_DELTA,
+        REPORT_COMPUTE, REPORT_RENDER, MESSAGE_DELIVERY
+    };
+
+    public static final LongAdder CACHE_HITS = new LongAdder();
+    public static final LongAdder CACHE_MISSES = new LongAdder();
+    public static final LongAdder POOL_HITS = new LongAdder();
+    public static final LongAdder POOL_MISSES = new LongAdder();
+    public static final LongAdder FUND_THROTTLED = new LongAdder();
+    public static final AtomicInteger IN_FLIGHT_REQUESTS = new AtomicInteger();
+
+    private static ScheduledExecutorService logScheduler;
+
+    private CraftFundsMetrics() {
+    }
+
+    /**
+     * Describes every metric, one entry per line, for the stats command
+     *
+     * @return Human-readable metric lines
+     */
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            lines.add(String.format("%s: n=%d err=%d p50=%s p95=%s p99=%s max=%s",
+                snapshot.name(), snapshot.count(), snapshot.errors(),
+                formatMillis(snapshot.p50()), formatMillis(snapshot.p95()),
+                formatMillis(snapshot.p99()), formatMillis(snapshot.max())));
+        }
+
+        lines.add(String.format("cache: hits=%d misses=%d hit-rate=%s",
+            CACHE_HITS.sum(), CACHE_MISSES.sum(), formatRatio(CACHE_HITS.sum(), CACHE_MISSES.sum())));
+        lines.add(String.format("pool: reused=%d opened=%d hit-rate=%s",
+            POOL_HITS.sum(), POOL_MISSES.sum(), formatRatio(POOL_HITS.sum(), POOL_MISSES.sum())));
+        lines.add("fund throttled: " + FUND_THROTTLED.sum());
+        lines.add("in-flight requests: " + IN_FLIGHT_REQUESTS.get());
+        return lines;
+    }
+
+    /**
+     * Starts logging a compact metrics summary at a fixed interval
+     *
+     * @param intervalSeconds Seconds between log lines; 0 disables logging
+     */
+    public static synchronized void startPeriodicLogging(long intervalSeconds) {
+        if (intervalSeconds <= 0 || logScheduler != null) {
+            return;
+        }
+        logScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CraftFunds-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logScheduler.scheduleAtFixedRate(
+            () -> CraftFunds.LOGGER.info("CraftFunds stats: {}", String.join(" | ", describe())),
+            intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopPeriodicLogging() {
+        if (logScheduler != null) {
+            logScheduler.shutdownNow();
+            logScheduler = null;
+        }
+    }
+
+    private static String formatMillis(long micros) {
+        return String.format("%.1fms", micros / 1000.0);
+    }
+
+    private static String formatRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? "n/a" : String.format("%.1f%%", hits * 100.0 / total);
+    }
+}
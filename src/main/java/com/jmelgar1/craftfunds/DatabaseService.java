@@ -1,257 +1,423 @@
 package com.jmelgar1.craftfunds;
 
 import java.sql.*;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import net.minecraft.text.Text;
-import net.minecraft.text.MutableText;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
-public class DatabaseService {
-    private final ConfigManager config;
-    private static boolean driverLoaded = false;
+/**
+ * Server-lifetime access to the donations database. A single instance is
+ * created by {@link CraftFunds} and shares one {@link DonationRepository},
+ * and with it one bounded connection pool, across every join and command;
+ * call {@link #close()} when the server stops. The repository backend is
+ * chosen by the database.backend key.
+ * 
+ * Blocking JDBC work runs on a dedicated, bounded executor rather than the
+ * common ForkJoinPool. Futures returned from this class complete on that
+ * executor, so callers must hop back to the server thread before touching
+ * players or the world.
+ * 
+ * Configuration is read from immutable {@link CraftFundsConfig} snapshots.
+ * When the file is reloaded, {@link #reconfigure} rebuilds only the parts
+ * whose settings actually changed.
+ */
+public class DatabaseService implements AutoCloseable {
+    private volatile CraftFundsConfig config;
+    private volatile DonationRepository repository;
+    private final ThreadPoolExecutor executor;
+    private volatile DonationLedger ledger;
+    private volatile CircuitBreaker circuitBreaker;
+    private volatile ExchangeRateTable exchangeRates;
+    
+    // Last report built from the ledger, reused while the ledger is unchanged
+    private volatile FundingReport lastReport;
+    
+    private static final int MAX_DISPLAYED_DONATIONS = 10;
+    
+    // Single-flight state: callers arriving while a report is being computed share its future
+    private final AtomicReference<CompletableFuture<FundingReport>> inFlightReport = new AtomicReference<>();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final LongAdder executedQueries = new LongAdder();
     
     public DatabaseService() {
-        this.config = ConfigManager.getInstance();
-        loadDriver();
+        this.config = ConfigManager.getInstance().getConfig();
+        this.repository = createRepository(config);
+        this.executor = createExecutor(config);
+        this.ledger = createLedger(config);
+        this.circuitBreaker = createCircuitBreaker(config);
+        this.exchangeRates = createExchangeRateTable(config);
     }
     
-    private static synchronized void loadDriver() {
-        if (!driverLoaded) {
-            CraftFunds.LOGGER.info("Attempting to load MySQL JDBC driver...");
+    /**
+     * Applies a reloaded configuration. Only components whose settings changed
+     * are rebuilt: a new repository (and ledger, since its data came from the
+     * old database) when connection settings change, a new circuit breaker when
+     * its thresholds change or the backend is replaced, and the executor is
+     * resized in place.
+     * 
+     * @param previous The configuration in effect before the reload
+     * @param updated The newly loaded configuration
+     * @return true if the database connection changed and cached data should be refreshed
+     */
+    public synchronized boolean reconfigure(CraftFundsConfig previous, CraftFundsConfig updated) {
+        this.config = updated;
+        boolean connectionChanged = !previous.sameConnectionSettings(updated);
+        
+        if (connectionChanged) {
+            DonationRepository oldRepository = repository;
+            repository = createRepository(updated);
+            ledger = createLedger(updated);
+            lastReport = null;
+            // Borrowed connections are closed by their holders when returned to a closed pool
+            oldRepository.close();
+            CraftFunds.LOGGER.info("Database connection settings changed, now using the {} backend", repository.getName());
             
-            // List all available drivers for debugging
-            java.util.Enumeration<java.sql.Driver> drivers = java.sql.DriverManager.getDrivers();
-            CraftFunds.LOGGER.info("Available JDBC drivers:");
-            while (drivers.hasMoreElements()) {
-                java.sql.Driver driver = drivers.nextElement();
-                CraftFunds.LOGGER.info("  - {}", driver.getClass().getName());
+            int threads = Math.max(1, updated.poolMaxSize());
+            if (threads > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(threads);
+                executor.setCorePoolSize(threads);
+            } else {
+                executor.setCorePoolSize(threads);
+                executor.setMaximumPoolSize(threads);
+            }
+        } else if (previous.ledgerReconcileIntervalMinutes() != updated.ledgerReconcileIntervalMinutes()) {
+            ledger.setReconcileIntervalMillis(updated.ledgerReconcileIntervalMinutes() * 60_000L);
+        }
+        
+        if (connectionChanged || !previous.sameCircuitSettings(updated)) {
+            circuitBreaker = createCircuitBreaker(updated);
+            CraftFunds.LOGGER.info("Circuit breaker rebuilt, circuit reset to {}", CircuitBreaker.State.CLOSED);
+        }
+        
+        if (connectionChanged
+                || !previous.exchangeRates().equals(updated.exchangeRates())
+                || previous.exchangeRateRefreshIntervalMinutes() != updated.exchangeRateRefreshIntervalMinutes()) {
+            exchangeRates = createExchangeRateTable(updated);
+        }
+        
+        if (previous.databaseExecutorQueueSize() != updated.databaseExecutorQueueSize()) {
+            CraftFunds.LOGGER.warn("database.executor.queue.size takes effect after a server restart");
+        }
+        return connectionChanged;
+    }
+    
+    private static DonationLedger createLedger(CraftFundsConfig config) {
+        return new DonationLedger(config.ledgerReconcileIntervalMinutes() * 60_000L);
+    }
+    
+    private static ExchangeRateTable createExchangeRateTable(CraftFundsConfig config) {
+        return new ExchangeRateTable(config.exchangeRates(), config.exchangeRateRefreshIntervalMinutes() * 60_000L);
+    }
+    
+    private static DonationRepository createRepository(CraftFundsConfig config) {
+        CraftFunds.LOGGER.info("Using the {} donation database backend", config.databaseBackend());
+        return switch (config.databaseBackend()) {
+            case EMBEDDED -> new EmbeddedDonationRepository(config);
+            case MYSQL -> new MySqlDonationRepository(config);
+        };
+    }
+    
+    private CircuitBreaker createCircuitBreaker(CraftFundsConfig config) {
+        return new CircuitBreaker(repository.getName(),
+            config.circuitFailureThreshold(),
+            config.circuitOpenSeconds() * 1000L,
+            config.circuitMaxOpenSeconds() * 1000L);
+    }
+    
+    /**
+     * Computes the funding report asynchronously. Concurrent callers are
+     * coalesced: while a computation is in flight, every caller receives the
+     * same future and no additional query is started.
+     * 
+     * @return A future completed with the funding report
+     */
+    public CompletableFuture<FundingReport> getMonthlyFundingTotal() {
+        while (true) {
+            CompletableFuture<FundingReport> current = inFlightReport.get();
+            if (current != null) {
+                coalescedCalls.increment();
+                return current;
             }
             
-            try {
-                // Try the newer MySQL connector first
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                driverLoaded = true;
-                CraftFunds.LOGGER.info("MySQL JDBC driver loaded successfully");
-            } catch (ClassNotFoundException e) {
-                CraftFunds.LOGGER.warn("Could not load com.mysql.cj.jdbc.Driver: {}", e.getMessage());
-                try {
-                    // Fallback to older driver name if available
-                    Class.forName("com.mysql.jdbc.Driver");
-                    driverLoaded = true;
-                    CraftFunds.LOGGER.info("MySQL JDBC driver (legacy) loaded successfully");
-                } catch (ClassNotFoundException e2) {
-                    CraftFunds.LOGGER.error("Failed to load any MySQL JDBC driver");
-                    CraftFunds.LOGGER.error("  com.mysql.cj.jdbc.Driver: {}", e.getMessage());
-                    CraftFunds.LOGGER.error("  com.mysql.jdbc.Driver: {}", e2.getMessage());
-                }
+            CompletableFuture<FundingReport> created = new CompletableFuture<>();
+            if (inFlightReport.compareAndSet(null, created)) {
+                executedQueries.increment();
+                supplyAsync(this::queryFundingReport).whenComplete((report, throwable) -> {
+                    // Clear before completing so callers arriving afterwards start a fresh query
+                    inFlightReport.compareAndSet(created, null);
+                    if (throwable != null) {
+                        created.completeExceptionally(throwable);
+                    } else {
+                        created.complete(report);
+                    }
+                });
+                return created;
             }
         }
     }
     
-    public static class FundingReport {
-        public final String summary;
-        public final Text donationDetails;
-        public final double totalDonations;
-        public final double totalSpending;
-        public final double netAmount;
-        
-        public FundingReport(String summary, Text donationDetails, double totalDonations, double totalSpending) {
-            this.summary = summary;
-            this.donationDetails = donationDetails;
-            this.totalDonations = totalDonations;
-            this.totalSpending = totalSpending;
-            this.netAmount = totalDonations - totalSpending;
+    /**
+     * Computes the funding report from a query that starts after this call,
+     * for callers that just wrote donations. A computation already in flight
+     * may have read the ledger before the write committed, so it is awaited
+     * and a new one joined instead of being reused.
+     * 
+     * @return A future completed with a report that includes writes committed before this call
+     */
+    public CompletableFuture<FundingReport> getFreshFundingTotal() {
+        CompletableFuture<FundingReport> current = inFlightReport.get();
+        if (current == null) {
+            return getMonthlyFundingTotal();
         }
+        // The in-flight slot is cleared before its future completes, so this starts or joins a later query
+        return current.handle((report, throwable) -> null).thenCompose(ignored -> getMonthlyFundingTotal());
     }
     
     /**
-     * Formats a dollar amount to show whole numbers without decimals
-     * @param amount the amount to format
-     * @return formatted string (e.g., "15" for 15.00, "15.01" for 15.01)
+     * Runs blocking database work on the CraftFunds executor. If the executor's
+     * queue is full the returned future fails with a RejectedExecutionException
+     * instead of the caller blocking.
+     * 
+     * @param task The blocking task to run
+     * @return A future completed on the database executor
      */
-    private String formatAmount(double amount) {
-        if (amount == Math.floor(amount)) {
-            // It's a whole number, format without decimals
-            return String.format("%.0f", amount);
-        } else {
-            // Has decimal places, format with 2 decimal places
-            return String.format("%.2f", amount);
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            CraftFunds.LOGGER.warn("CraftFunds database executor is saturated, rejecting task");
+            return CompletableFuture.failedFuture(e);
         }
     }
     
-    private double getTotalSpending(Connection connection) throws SQLException {
-        String query = "SELECT total_spent FROM total_spending LIMIT 1";
-        try (PreparedStatement stmt = connection.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getDouble("total_spent");
-            }
-            return 0.0;
-        }
+    /**
+     * A blocking call against the donation repository
+     */
+    @FunctionalInterface
+    public interface RepositoryCall<T> {
+        T apply(DonationRepository repository) throws SQLException;
     }
     
-    public CompletableFuture<FundingReport> getMonthlyFundingTotal() {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!config.hasValidDatabaseCredentials()) {
-                return new FundingReport("Database credentials not configured. Please check your craftfunds.conf file.", Text.literal(""), 0.0, 0.0);
+    /**
+     * Runs a call against the current repository on the database executor,
+     * guarded by the circuit breaker. While the circuit is open the returned
+     * future fails immediately without touching the database.
+     * 
+     * @param call The repository call to run
+     * @return A future completed with the call's result, or failed with the SQLException it threw
+     */
+    public <T> CompletableFuture<T> withRepository(RepositoryCall<T> call) {
+        return supplyAsync(() -> {
+            if (!config.isDatabaseConfigured()) {
+                throw new CompletionException(new SQLException("Database credentials not configured"));
             }
             
-            try (Connection connection = createConnection()) {
-                LocalDate now = LocalDate.now();
-                LocalDate startDate = LocalDate.of(now.getYear(), now.getMonth(), 2);
-                LocalDate endDate = now.withDayOfMonth(now.lengthOfMonth());
-                
-                // Get total donations for USD (primary currency) - all time
-                String totalQuery = "SELECT SUM(amount) as total, COUNT(*) as donation_count " +
-                                   "FROM donations " +
-                                   "WHERE currency = 'USD'";
-                
-                double totalUSD = 0;
-                int totalCount = 0;
-                
-                try (PreparedStatement stmt = connection.prepareStatement(totalQuery)) {
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next()) {
-                            totalUSD = rs.getDouble("total");
-                            totalCount = rs.getInt("donation_count");
-                        }
-                    }
-                }
-                
-                // Get total spending
-                double totalSpending = getTotalSpending(connection);
-                double netAmount = totalUSD - totalSpending;
-                
-                // Get detailed donations for hover text (only show excess donations after spending)
-                // Query all donations, not limited by date range
-                String detailQuery = "SELECT name, amount, date " +
-                                    "FROM donations " +
-                                    "WHERE currency = 'USD' " +
-                                    "ORDER BY date ASC"; // Order by oldest first to subtract spending
-                
-                MutableText detailsText = Text.literal("Donations:\n");
-                int excessDonationCount = 0;
-                
-                try (PreparedStatement stmt = connection.prepareStatement(detailQuery)) {
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        double remainingSpending = totalSpending;
-                        int count = 1;
-                        
-                        while (rs.next()) {
-                            String donorName = rs.getString("name");
-                            double amount = rs.getDouble("amount");
-                            LocalDate donationDate = rs.getDate("date").toLocalDate();
-                            
-                            if (remainingSpending > 0) {
-                                if (amount <= remainingSpending) {
-                                    // This donation is fully consumed by spending
-                                    remainingSpending -= amount;
-                                    continue;
-                                } else {
-                                    // This donation is partially consumed
-                                    double excessAmount = amount - remainingSpending;
-                                    remainingSpending = 0;
-                                    
-                                    // Show the excess portion with alternating colors
-                                    boolean isEven = (count % 2 == 0);
-                                    int nameColor = isEven ? 0x565e58 : 0x667369;
-                                    int amountColor = isEven ? 0x3a944f : 0x40b85c;
-                                    int dateColor = isEven ? 0x9c934b : 0xbfb354;
-                                    
-                                    detailsText.append(Text.literal(count + ". "))
-                                              .append(Text.literal(donorName).styled(style -> style.withColor(nameColor)))
-                                              .append(Text.literal(": "))
-                                              .append(Text.literal("$" + formatAmount(excessAmount)).styled(style -> style.withColor(amountColor)))
-                                              .append(Text.literal(" ("))
-                                              .append(Text.literal(donationDate.format(DateTimeFormatter.ofPattern("MM-dd"))).styled(style -> style.withColor(dateColor)))
-                                              .append(Text.literal(")\n"));
-                                    count++;
-                                    excessDonationCount++;
-                                }
-                            } else {
-                                // All spending is covered, show full donation with alternating colors
-                                boolean isEven = (count % 2 == 0);
-                                int nameColor = isEven ? 0x565e58 : 0x667369;
-                                int amountColor = isEven ? 0x3a944f : 0x40b85c;
-                                int dateColor = isEven ? 0x9c934b : 0xbfb354;
-                                
-                                detailsText.append(Text.literal(count + ". "))
-                                          .append(Text.literal(donorName).styled(style -> style.withColor(nameColor)))
-                                          .append(Text.literal(": "))
-                                          .append(Text.literal("$" + formatAmount(amount)).styled(style -> style.withColor(amountColor)))
-                                          .append(Text.literal(" ("))
-                                          .append(Text.literal(donationDate.format(DateTimeFormatter.ofPattern("MM-dd"))).styled(style -> style.withColor(dateColor)))
-                                          .append(Text.literal(")\n"));
-                                count++;
-                                excessDonationCount++;
-                            }
-                            
-                            // Limit to 10 excess donations for display in hover, but continue counting
-                            if (count > 10) {
-                                // Continue counting remaining excess donations without adding to display
-                                while (rs.next()) {
-                                    double remainingAmount = rs.getDouble("amount");
-                                    // Only count if spending is already covered (remainingSpending should be 0 at this point)
-                                    if (remainingSpending <= 0) {
-                                        excessDonationCount++;
-                                    }
-                                }
-                                break;
-                            }
-                        }
-                        
-                        // If no excess donations, update the message
-                        if (count == 1) {
-                            detailsText = Text.literal("All donations have been consumed by spending.\n");
-                        }
-                    }
-                }
-                
-                // Create summary message
-                String summary;
-                if (totalCount == 0) {
-                    summary = "§c No donations found.";
+            CircuitBreaker circuitBreaker = this.circuitBreaker;
+            if (!circuitBreaker.tryAcquire()) {
+                throw new CompletionException(new SQLException("Database temporarily unavailable"));
+            }
+            
+            boolean succeeded = false;
+            try {
+                T result = call.apply(repository);
+                succeeded = true;
+                return result;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                if (succeeded) {
+                    circuitBreaker.onSuccess();
                 } else {
-                    String donationText = excessDonationCount == 1 ? "donation" : "donations";
-                    summary = String.format("§6$%s / $15 §7(%d %s)", formatAmount(netAmount), excessDonationCount, donationText);
+                    circuitBreaker.onFailure();
                 }
-                
-                return new FundingReport(summary, detailsText, totalUSD, totalSpending);
-                
-            } catch (SQLException e) {
-                CraftFunds.LOGGER.error("Database error while retrieving funding total", e);
-                return new FundingReport("§cDatabase error: " + e.getMessage(), Text.literal(""), 0.0, 0.0);
             }
         });
     }
     
-    private Connection createConnection() throws SQLException {
-        String url = config.getDatabaseUrl();
-        String username = config.getDatabaseUsername();
-        String password = config.getDatabasePassword();
-        int timeoutSeconds = config.getDatabaseTimeoutSeconds();
-        
-        // Add connection properties for better MySQL compatibility
-        if (!url.contains("?")) {
-            url += "?";
-        } else if (!url.endsWith("&") && !url.endsWith("?")) {
-            url += "&";
+    /**
+     * Loads the JDBC driver and fills the connection pool on the database
+     * executor, so the first report does not pay for them. Called once when
+     * the server has started.
+     * 
+     * @return A future completed with the number of idle connections ready, or failed if the database is unreachable
+     */
+    public CompletableFuture<Integer> warmUp() {
+        long start = System.nanoTime();
+        return withRepository(DonationRepository::warmUp).thenApply(idleConnections -> {
+            CraftFunds.LOGGER.info("{} database warmed up in {} ms with {} idle connection(s)",
+                repository.getName(), (System.nanoTime() - start) / 1_000_000, idleConnections);
+            return idleConnections;
+        });
+    }
+    
+    /**
+     * @return the number of calls that joined an already running report computation
+     */
+    public long getCoalescedCallCount() {
+        return coalescedCalls.sum();
+    }
+    
+    /**
+     * @return the number of report computations that actually queried the database
+     */
+    public long getExecutedQueryCount() {
+        return executedQueries.sum();
+    }
+    
+    private FundingReport queryFundingReport() {
+        CraftFundsMetrics.IN_FLIGHT_REQUESTS.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            FundingReport report = computeFundingReport();
+            if (report.isError()) {
+                CraftFundsMetrics.REPORT_COMPUTE.recordError();
+            } else {
+                CraftFundsMetrics.REPORT_COMPUTE.recordSince(start);
+            }
+            return report;
+        } finally {
+            CraftFundsMetrics.IN_FLIGHT_REQUESTS.decrementAndGet();
+        }
+    }
+    
+    private FundingReport computeFundingReport() {
+        if (!config.isDatabaseConfigured()) {
+            return FundingReport.error("Database credentials not configured. Please check your craftfunds.conf file.");
         }
         
-        url += "useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&connectTimeout=" + (timeoutSeconds * 1000);
-        
-        DriverManager.setLoginTimeout(timeoutSeconds);
-        
-        CraftFunds.LOGGER.debug("Attempting to connect to database: {}", url.replaceAll("password=[^&]*", "password=***"));
+        // Read each component once so a concurrent reload cannot mix old and new instances mid-query
+        CircuitBreaker circuitBreaker = this.circuitBreaker;
+        DonationLedger ledger = this.ledger;
+        DonationRepository repository = this.repository;
+        ExchangeRateTable exchangeRates = this.exchangeRates;
         
-        Connection connection = DriverManager.getConnection(url, username, password);
+        // Fail fast while the database is known to be down; the cache keeps serving its last good snapshot
+        if (!circuitBreaker.tryAcquire()) {
+            return FundingReport.error("§cDatabase temporarily unavailable. Please try again later.");
+        }
         
-        // Don't set network timeout as it requires an executor in newer MySQL connector versions
-        // The connectTimeout in the URL should handle connection timeouts
+        boolean succeeded = false;
+        try {
+            // Only new donations and the spending total are read; the full table is reconciled periodically.
+            // Rates are cached and only re-read once per refresh interval, after the ledger queries succeed
+            boolean changed = ledger.refresh(repository, () -> exchangeRates.get(repository));
+            succeeded = true;
+            FundingReport previous = lastReport;
+            long goal = config.fundingGoalCents();
+            if (!changed && previous != null && previous.goalCents == goal) {
+                return previous;
+            }
+            if (ledger != this.ledger) {
+                // The connection settings were reloaded while this query ran; don't publish stale data
+                return FundingReport.error("§cDatabase temporarily unavailable. Please try again later.");
+            }
+            
+            // Only the oldest excess donations are materialized for the hover, up to the display limit
+            FundingReport report = new FundingReport(
+                ledger.getTotalAmountCents(),
+                ledger.getTotalSpendingCents(),
+                ledger.getDonationCount(),
+                ledger.getExcessDonationCount(),
+                ledger.getExcessDonations(MAX_DISPLAYED_DONATIONS),
+                goal
+            );
+            lastReport = report;
+            return report;
+            
+        } catch (SQLException e) {
+            CraftFunds.LOGGER.error("Database error while retrieving funding total", e);
+            return FundingReport.error("§cDatabase error: " + e.getMessage());
+        } finally {
+            if (succeeded) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        }
+    }
+    
+    /**
+     * @return the top donors as of the last refresh, or null if the ledger has not loaded yet
+     */
+    public DonorStandings getDonorStandings() {
+        return ledger.getDonorStandings();
+    }
+    
+    /**
+     * @return donation totals per month, oldest first, or null if the ledger has not loaded yet
+     */
+    public NavigableMap<YearMonth, MonthlyRollup.MonthTotal> getMonthTotals() {
+        return ledger.getMonthTotals();
+    }
+    
+    /**
+     * @return the circuit breaker guarding database calls
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * @return the number of pooled connections currently borrowed
+     */
+    public int getActiveConnectionCount() {
+        return repository.getActiveConnectionCount();
+    }
+    
+    /**
+     * @return the number of pooled connections currently idle
+     */
+    public int getIdleConnectionCount() {
+        return repository.getIdleConnectionCount();
+    }
+    
+    /**
+     * Creates the bounded executor for blocking database work. It never runs
+     * more threads than there are pooled connections, and its queue is capped
+     * so a stalled database cannot accumulate unbounded work.
+     */
+    private ThreadPoolExecutor createExecutor(CraftFundsConfig config) {
+        int threads = Math.max(1, config.poolMaxSize());
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "CraftFunds-DB-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
         
-        return connection;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, config.databaseExecutorQueueSize())), threadFactory,
+            new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+    
+    /**
+     * Stops the database executor and releases every pooled database connection.
+     * Called once when the server stops.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        repository.close();
     }
-}
\ No newline at end of file
+}
@@ -52,7 +52,7 @@ public class DonateCommand {
             ServerPlayerEntity player = source.getPlayerOrThrow();
             
             // Create clickable PayPal donation link as URI from config
-            String donationUrl = ConfigManager.getInstance().getPayPalDonationUrl();
+            String donationUrl = ConfigManager.getInstance().getConfig().payPalDonationUrl();
             URI donationUri = URI.create(donationUrl);
             final Text clickableLink = Text.literal("Click here to donate!").styled(s -> 
                 s.withClickEvent(new ClickEvent.OpenUrl(donationUri))
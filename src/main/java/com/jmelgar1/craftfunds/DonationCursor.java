@@ -0,0 +1,18 @@
+package com.jmelgar1.craftfunds;
+
+import java.time.LocalDate;
+
+/**
+ * Position in the donation history, ordered by (date, id). Pages are read
+ * relative to a cursor instead of by offset, so reading any page costs one
+ * index range scan no matter how deep into the history it is.
+ *
+ * @param date The date of the last donation on the previous page
+ * @param id The id of the last donation on the previous page
+ */
+public record DonationCursor(LocalDate date, long id) {
+
+    static DonationCursor of(DonationLedger.Donation donation) {
+        return new DonationCursor(donation.date(), donation.id());
+    }
+}
@@ -0,0 +1,170 @@
+package com.jmelgar1.craftfunds;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pages through the full donation history for /fund history, newest first.
+ *
+ * Pages are read with keyset pagination on (date, id): each page starts just
+ * after the last donation of the previous one, so any page costs a single
+ * index range scan of one page. The page boundaries a player has seen are
+ * kept in a small per-player cursor cache, evicted when least recently used
+ * or idle for too long. Jumping ahead to a page with no cached boundary reads
+ * only the (date, id) keys of the skipped pages, once, and caches every
+ * boundary it passes.
+ */
+public class DonationHistory {
+    public static final int PAGE_SIZE = 10;
+    private static final int MAX_CACHED_PLAYERS = 256;
+    private static final long CURSOR_IDLE_TIMEOUT_MILLIS = 10 * 60_000L;
+    private static final int MAX_KEYS_PER_SEEK = 10_000;
+
+    /**
+     * One page of donation history
+     *
+     * @param number The page number, starting at 1
+     * @param donations The donations on the page, newest first
+     * @param hasNext true if older donations exist after this page
+     */
+    public record Page(int number, List<DonationLedger.Donation> donations, boolean hasNext) {}
+
+    /**
+     * The page boundaries one player has paged through
+     */
+    private static final class PlayerCursors {
+        // pageEnds.get(i) is the last donation on page i + 1, so page n starts after pageEnds.get(n - 2)
+        private final List<DonationCursor> pageEnds = new ArrayList<>();
+        private long lastUsedMillis;
+    }
+
+    private final DatabaseService databaseService;
+    private final Map<UUID, PlayerCursors> cursors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, PlayerCursors> eldest) {
+            return size() > MAX_CACHED_PLAYERS;
+        }
+    };
+
+    public DonationHistory(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Loads a page of donation history for a player
+     *
+     * @param playerId The player paging through the history
+     * @param page The page number, starting at 1
+     * @return A future completed on the database executor with the page
+     */
+    public CompletableFuture<Page> getPage(UUID playerId, int page) {
+        return databaseService.withRepository(repository -> loadPage(repository, playerId, Math.max(1, page)));
+    }
+
+    private Page loadPage(DonationRepository repository, UUID playerId, int page) throws SQLException {
+        DonationCursor before = null;
+        if (page > 1) {
+            before = locatePageStart(repository, playerId, page);
+            if (before == null) {
+                // The history ends before this page
+                return new Page(page, List.of(), false);
+            }
+        }
+
+        // Read one extra row to learn whether an older page exists
+        List<DonationLedger.Donation> rows = repository.findDonationsBefore(before, PAGE_SIZE + 1);
+        boolean hasNext = rows.size() > PAGE_SIZE;
+        List<DonationLedger.Donation> donations = hasNext ? rows.subList(0, PAGE_SIZE) : rows;
+
+        if (hasNext) {
+            rememberPageEnd(playerId, page, DonationCursor.of(donations.get(donations.size() - 1)));
+        }
+        return new Page(page, List.copyOf(donations), hasNext);
+    }
+
+    /**
+     * Finds the cursor that page starts after, seeking forward through the
+     * keys from the last boundary the player has cached if necessary
+     *
+     * @return the cursor, or null if the history has fewer pages
+     */
+    private DonationCursor locatePageStart(DonationRepository repository, UUID playerId, int page) throws SQLException {
+        List<DonationCursor> known = knownPageEnds(playerId);
+        if (known.size() >= page - 1) {
+            return known.get(page - 2);
+        }
+
+        // Walk the keys between the last known boundary and the requested page, keeping every page boundary
+        List<DonationCursor> found = new ArrayList<>();
+        DonationCursor from = known.isEmpty() ? null : known.get(known.size() - 1);
+        int pagesToSkip = page - 1 - known.size();
+        while (pagesToSkip > 0) {
+            int pages = Math.min(pagesToSkip, MAX_KEYS_PER_SEEK / PAGE_SIZE);
+            List<DonationCursor> keys = repository.findCursorsBefore(from, pages * PAGE_SIZE);
+            for (int i = PAGE_SIZE - 1; i < keys.size(); i += PAGE_SIZE) {
+                found.add(keys.get(i));
+            }
+            if (keys.size() < pages * PAGE_SIZE) {
+                break;
+            }
+            from = keys.get(keys.size() - 1);
+            pagesToSkip -= pages;
+        }
+
+        appendPageEnds(playerId, known.size(), found);
+        int index = page - 2 - known.size();
+        return index < found.size() ? found.get(index) : null;
+    }
+
+    private List<DonationCursor> knownPageEnds(UUID playerId) {
+        synchronized (cursors) {
+            evictIdle();
+            PlayerCursors entry = cursors.get(playerId);
+            return entry == null ? List.of() : List.copyOf(entry.pageEnds);
+        }
+    }
+
+    private void rememberPageEnd(UUID playerId, int page, DonationCursor pageEnd) {
+        synchronized (cursors) {
+            PlayerCursors entry = cursors.computeIfAbsent(playerId, id -> new PlayerCursors());
+            if (page == 1) {
+                // Starting over from the newest donations; older boundaries may have shifted
+                entry.pageEnds.clear();
+            }
+            if (entry.pageEnds.size() == page - 1) {
+                entry.pageEnds.add(pageEnd);
+            }
+            entry.lastUsedMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void appendPageEnds(UUID playerId, int expectedSize, List<DonationCursor> pageEnds) {
+        synchronized (cursors) {
+            PlayerCursors entry = cursors.computeIfAbsent(playerId, id -> new PlayerCursors());
+            // Another request for this player may have changed the cache meanwhile; only extend what we read from
+            if (entry.pageEnds.size() == expectedSize) {
+                entry.pageEnds.addAll(pageEnds);
+            }
+            entry.lastUsedMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - CURSOR_IDLE_TIMEOUT_MILLIS;
+        cursors.values().removeIf(entry -> entry.lastUsedMillis < cutoff);
+    }
+
+    /**
+     * Forgets every cached cursor, e.g. after switching to a different database
+     */
+    public void clear() {
+        synchronized (cursors) {
+            cursors.clear();
+        }
+    }
+}
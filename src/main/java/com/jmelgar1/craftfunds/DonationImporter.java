@@ -0,0 +1,330 @@
+package com.jmelgar1.craftfunds;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Backfills donations from a CSV export, such as PayPal's activity download,
+ * for /craftfunds import.
+ *
+ * The file is streamed one row at a time on a dedicated thread and stored in
+ * chunks of import.batch.size rows. Each chunk is one batched insert committed
+ * on its own, while the next chunk is being parsed, so memory stays bounded by
+ * two chunks and the server thread is never involved. Rows are deduplicated
+ * by transaction id, both within the file and against donations already
+ * stored, so an interrupted import can simply be run again.
+ *
+ * Columns are located by their header names: Date, Name, Gross (or Amount)
+ * and Transaction ID are required; Currency and Status are optional. When a
+ * Status column exists, only Completed rows are imported, and rows with a
+ * zero or negative amount (payments sent, refunds, fees) are always skipped.
+ */
+public class DonationImporter {
+    private static final long PROGRESS_INTERVAL_MILLIS = 2000;
+    private static final int MAX_LOGGED_INVALID_ROWS = 5;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_TRANSACTION_ID_LENGTH = 64;
+
+    private final DatabaseService databaseService;
+    private final FundingCache fundingCache;
+    private final DonationHistory donationHistory;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean cancelled = false;
+
+    public DonationImporter(DatabaseService databaseService, FundingCache fundingCache, DonationHistory donationHistory) {
+        this.databaseService = databaseService;
+        this.fundingCache = fundingCache;
+        this.donationHistory = donationHistory;
+    }
+
+    /**
+     * Resolves a file name given to /craftfunds import against the server directory
+     *
+     * @param fileName The file name, relative to the server directory
+     * @return The absolute path of the file
+     * @throws IllegalArgumentException if the file is outside the server directory or does not exist
+     */
+    public static Path resolveImportFile(String fileName) {
+        Path serverDirectory = Paths.get("").toAbsolutePath().normalize();
+        Path file = serverDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(serverDirectory)) {
+            throw new IllegalArgumentException("Import files must be inside the server directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("File not found: " + serverDirectory.relativize(file));
+        }
+        return file;
+    }
+
+    /**
+     * Starts importing a file in the background, unless an import is already running
+     *
+     * @param file The CSV file to import
+     * @param config The configuration supplying the batch size and date format
+     * @param progress Receives progress and result messages, on the import thread
+     * @return false if another import is still running
+     */
+    public boolean start(Path file, CraftFundsConfig config, Consumer<String> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        cancelled = false;
+
+        Thread thread = new Thread(() -> {
+            try {
+                run(file, Math.max(1, config.importBatchSize()), DateTimeFormatter.ofPattern(config.importDateFormat()), progress);
+            } finally {
+                running.set(false);
+            }
+        }, "CraftFunds-Import");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Stops a running import after the chunk being stored; committed chunks are kept
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * A submitted chunk and the number of rows in it
+     */
+    private record PendingChunk(CompletableFuture<Integer> inserted, int size) {}
+
+    /**
+     * Running totals for one import
+     */
+    private static final class Counts {
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long skipped;
+        private long invalid;
+    }
+
+    private void run(Path file, int batchSize, DateTimeFormatter dateFormat, Consumer<String> progress) {
+        long start = System.nanoTime();
+        Counts counts = new Counts();
+        CraftFunds.LOGGER.info("Importing donations from {} in batches of {}", file, batchSize);
+        progress.accept("Importing " + file.getFileName() + "...");
+
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            Columns columns = Columns.fromHeader(csv.readRecord());
+
+            Map<String, DonationRepository.NewDonation> chunk = new LinkedHashMap<>();
+            PendingChunk pending = null;
+            long nextProgressMillis = System.currentTimeMillis() + PROGRESS_INTERVAL_MILLIS;
+            List<String> record;
+            while (!cancelled && (record = csv.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                counts.rows++;
+
+                String transactionId = null;
+                DonationRepository.NewDonation donation;
+                try {
+                    donation = columns.parse(record, dateFormat);
+                    if (donation != null) {
+                        transactionId = columns.transactionId(record);
+                    }
+                } catch (IllegalArgumentException e) {
+                    if (++counts.invalid <= MAX_LOGGED_INVALID_ROWS) {
+                        CraftFunds.LOGGER.warn("Skipping invalid row before line {} of {}: {}",
+                            csv.getLineNumber(), file.getFileName(), e.getMessage());
+                    }
+                    continue;
+                }
+                if (donation == null) {
+                    counts.skipped++;
+                    continue;
+                }
+                if (chunk.putIfAbsent(transactionId, donation) != null) {
+                    counts.duplicates++;
+                    continue;
+                }
+
+                if (chunk.size() >= batchSize) {
+                    // Wait for the previous chunk before submitting, so at most one is in flight
+                    awaitChunk(pending, counts);
+                    pending = submitChunk(chunk);
+                    chunk = new LinkedHashMap<>();
+                }
+
+                long now = System.currentTimeMillis();
+                if (now >= nextProgressMillis) {
+                    nextProgressMillis = now + PROGRESS_INTERVAL_MILLIS;
+                    progress.accept(String.format("%,d rows read, %,d imported, %,d duplicates so far",
+                        counts.rows, counts.imported, counts.duplicates));
+                }
+            }
+
+            awaitChunk(pending, counts);
+            if (!cancelled) {
+                awaitChunk(submitChunk(chunk), counts);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            CraftFunds.LOGGER.error("Failed to read donation import {}", file, e);
+            progress.accept("Import failed reading " + file.getFileName() + ": " + e.getMessage());
+            finish(counts);
+            return;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            CraftFunds.LOGGER.error("Failed to store donation import {}", file, cause);
+            progress.accept(String.format("Import stopped after %,d rows: %s. %,d donations were stored; "
+                + "run the import again to continue, stored transactions are skipped.",
+                counts.rows, cause.getMessage(), counts.imported));
+            finish(counts);
+            return;
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        String summary = String.format("%s %,d rows in %.1fs: %,d imported, %,d duplicates, %,d not completed or not incoming, %,d invalid",
+            cancelled ? "Import cancelled after" : "Imported", counts.rows, elapsedMillis / 1000.0,
+            counts.imported, counts.duplicates, counts.skipped, counts.invalid);
+        CraftFunds.LOGGER.info("{} from {}", summary, file);
+        progress.accept(summary);
+        finish(counts);
+    }
+
+    private PendingChunk submitChunk(Map<String, DonationRepository.NewDonation> chunk) {
+        return new PendingChunk(databaseService.withRepository(repository -> repository.insertTransactions(chunk)), chunk.size());
+    }
+
+    private static void awaitChunk(PendingChunk pending, Counts counts) {
+        if (pending == null) {
+            return;
+        }
+        int inserted = pending.inserted().join();
+        counts.imported += inserted;
+        counts.duplicates += pending.size() - inserted;
+    }
+
+    private void finish(Counts counts) {
+        if (counts.imported > 0) {
+            // Backfilled rows shift history pages; the ledger picks them up with its delta query
+            donationHistory.clear();
+            fundingCache.refreshAfterWrite();
+        }
+    }
+
+    /**
+     * Positions of the columns used by the import, located from the header row
+     */
+    private record Columns(int date, int name, int amount, int transactionId, int currency, int status) {
+
+        private static Columns fromHeader(List<String> header) {
+            if (header == null) {
+                throw new IllegalArgumentException("the file is empty");
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                positions.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            // PayPal exports name the amount column Gross; simpler exports call it Amount
+            Integer amount = positions.containsKey("gross") ? positions.get("gross") : positions.get("amount");
+            if (amount == null) {
+                throw new IllegalArgumentException("missing required column 'Gross'");
+            }
+            return new Columns(
+                require(positions, "date", "Date"),
+                require(positions, "name", "Name"),
+                amount,
+                require(positions, "transaction id", "Transaction ID"),
+                positions.getOrDefault("currency", -1),
+                positions.getOrDefault("status", -1)
+            );
+        }
+
+        private static int require(Map<String, Integer> positions, String key, String column) {
+            Integer position = positions.get(key);
+            if (position == null) {
+                throw new IllegalArgumentException("missing required column '" + column + "'");
+            }
+            return position;
+        }
+
+        private String transactionId(List<String> record) {
+            String id = field(record, transactionId);
+            if (id.isEmpty() || id.length() > MAX_TRANSACTION_ID_LENGTH) {
+                throw new IllegalArgumentException("transaction id must be 1-" + MAX_TRANSACTION_ID_LENGTH + " characters");
+            }
+            return id;
+        }
+
+        /**
+         * @return the donation in the row, or null if the row is not a completed incoming payment
+         * @throws IllegalArgumentException if the row cannot be parsed
+         */
+        private DonationRepository.NewDonation parse(List<String> record, DateTimeFormatter dateFormat) {
+            if (status >= 0 && !field(record, status).equalsIgnoreCase("Completed")) {
+                return null;
+            }
+
+            String gross = field(record, amount);
+            long cents;
+            try {
+                // Exports group thousands with commas, e.g. "1,234.56"
+                cents = Money.toCents(new BigDecimal(gross.replace(",", "")));
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("amount '" + gross + "' is not a number");
+            }
+            if (cents <= 0) {
+                return null;
+            }
+
+            String donor = field(record, name);
+            if (donor.isEmpty()) {
+                donor = "Anonymous";
+            } else if (donor.length() > MAX_NAME_LENGTH) {
+                donor = donor.substring(0, MAX_NAME_LENGTH);
+            }
+
+            String code = currency >= 0 ? ExchangeRates.normalize(field(record, currency)) : ExchangeRates.GOAL_CURRENCY;
+            if (!code.matches("[A-Z]{3}")) {
+                throw new IllegalArgumentException("currency '" + code + "' is not a three-letter code");
+            }
+
+            return new DonationRepository.NewDonation(donor, cents, code,
+                parseDate(field(record, date), dateFormat));
+        }
+
+        private static LocalDate parseDate(String value, DateTimeFormatter dateFormat) {
+            try {
+                return LocalDate.parse(value, dateFormat);
+            } catch (DateTimeParseException e) {
+                try {
+                    return LocalDate.parse(value);
+                } catch (DateTimeParseException ignored) {
+                    throw new IllegalArgumentException("date '" + value + "' does not match import.date.format");
+                }
+            }
+        }
+
+        private static String field(List<String> record, int index) {
+            if (index >= record.size()) {
+                throw new IllegalArgumentException("row has only " + record.size() + " columns");
+            }
+            return record.get(index).trim();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collects pushed donations into batches and stores each batch with a single
+ * batched insert, then refreshes the funding snapshot straight away.
+ *
+ * A batch is written once it reaches the maximum size or the batching delay
+ * after its first donation has passed, whichever comes first. Each submission
+ * gets a future that completes when its batch is committed, so the sender can
+ * be told whether its donations were stored.
+ *
+ * Donations are keyed by the sender's transaction id and stored through
+ * {@link DonationRepository#insertTransactions}, which skips ids that are
+ * already stored. A sender that is not told its batch committed can therefore
+ * always resend it: at worst the retry finds the donations already there.
+ */
+public class DonationIngestor implements AutoCloseable {
+    private final DatabaseService databaseService;
+    private final FundingCache fundingCache;
+    private final int maxBatchSize;
+    private final long batchDelayMillis;
+    private final long commitTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private Map<String, DonationRepository.NewDonation> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> pendingCommit = new CompletableFuture<>();
+    private CompletableFuture<Void> outstandingCommits = CompletableFuture.completedFuture(null);
+    private boolean flushScheduled = false;
+
+    /**
+     * @param databaseService Stores the batches
+     * @param fundingCache Refreshed after each commit
+     * @param maxBatchSize The most donations stored in one insert
+     * @param batchDelayMillis How long to wait for more donations before storing a batch
+     * @param commitTimeoutMillis How long a submission may take to commit before the database side gives up
+     */
+    public DonationIngestor(DatabaseService databaseService, FundingCache fundingCache, int maxBatchSize,
+                            long batchDelayMillis, long commitTimeoutMillis) {
+        this.databaseService = databaseService;
+        this.fundingCache = fundingCache;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchDelayMillis = batchDelayMillis;
+        this.commitTimeoutMillis = commitTimeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CraftFunds-DonationIngest");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return how long a submission may take to commit, from queueing to the end of its insert
+     */
+    public long getCommitTimeoutMillis() {
+        return commitTimeoutMillis;
+    }
+
+    /**
+     * Queues donations for the next batch. A transaction id already queued
+     * keeps its first donation.
+     *
+     * @param donations Validated donations to store, keyed by transaction id
+     * @return A future completed when the batch containing them is committed
+     */
+    public synchronized CompletableFuture<Void> submit(Map<String, DonationRepository.NewDonation> donations) {
+        CompletableFuture<Void> commit = pendingCommit;
+        donations.forEach(pending::putIfAbsent);
+        if (pending.size() >= maxBatchSize) {
+            scheduler.execute(this::flush);
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(this::flush, batchDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        return commit;
+    }
+
+    private void flush() {
+        Map<String, DonationRepository.NewDonation> batch;
+        CompletableFuture<Void> commit;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            commit = pendingCommit;
+            pending = new LinkedHashMap<>();
+            pendingCommit = new CompletableFuture<>();
+        }
+
+        CompletableFuture<Void> stored = databaseService.withRepository(repository -> repository.insertTransactions(batch))
+            .handle((inserted, throwable) -> {
+                if (throwable != null) {
+                    // Nothing was written; the senders were not told otherwise and resend with the same ids
+                    CraftFunds.LOGGER.error("Failed to store {} pushed donation(s)", batch.size(), throwable);
+                    commit.completeExceptionally(throwable);
+                    return null;
+                }
+                CraftFunds.LOGGER.info("Stored {} pushed donation(s), {} already stored", inserted, batch.size() - inserted);
+                commit.complete(null);
+                if (inserted > 0) {
+                    // The ledger picks the new rows up with its delta query, so this refresh is cheap
+                    fundingCache.refreshAfterWrite();
+                }
+                return null;
+            });
+        synchronized (this) {
+            outstandingCommits = CompletableFuture.allOf(outstandingCommits, stored);
+        }
+    }
+
+    /**
+     * Writes any queued donations, stops the batching thread and waits for the
+     * inserts to commit, so the database executor is not shut down under them
+     */
+    @Override
+    public void close() {
+        scheduler.execute(this::flush);
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            CompletableFuture<Void> commits;
+            synchronized (this) {
+                commits = outstandingCommits;
+            }
+            commits.get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            CraftFunds.LOGGER.warn("Pushed donations were still being stored when the webhook stopped");
+        }
+    }
+}
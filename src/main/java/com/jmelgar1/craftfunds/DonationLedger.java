@@ -0,0 +1,496 @@
+package com.jmelgar1.craftfunds;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the donations ledger, ordered oldest first.
+ *
+ * Each refresh only fetches donations with an id above the last one seen, so
+ * the cost scales with new donations rather than total history. A full reload
+ * runs periodically to pick up edited or deleted rows. The excess donations
+ * (those left over after total spending is subtracted) are re-derived locally,
+ * and only when the ledger, the spending total or the exchange rates actually
+ * changed.
+ *
+ * Donations keep their original currency. Each one is converted into the goal
+ * currency on its own, rounded to the cent, wherever it is counted: the
+ * monthly sums in {@link MonthlyRollup}, which the totals are read from, the
+ * excess walk and the leaderboard. The net amount therefore always equals the
+ * sum of the excess donations. Donations in a currency without a rate are left
+ * out of the totals.
+ *
+ * All amounts are long cents. The rows are held in parallel primitive columns
+ * ({@link Rows}), and the excess walk only records where the excess begins, so
+ * re-deriving it allocates nothing per donation; only the few donations shown
+ * in the hover are materialized.
+ */
+public class DonationLedger {
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final Comparator<Donation> LEDGER_ORDER =
+        Comparator.comparing(Donation::date).thenComparingLong(Donation::id);
+
+    /**
+     * A single donation row, with its amount in cents of its own currency
+     */
+    public record Donation(long id, String name, long amountCents, String currency, LocalDate date) {}
+
+    /**
+     * A donation that is not yet consumed by spending, with its remaining amount in goal-currency cents
+     */
+    public record ExcessDonation(String name, long amountCents, LocalDate date) {}
+
+    /**
+     * Where the excess donations begin. Every convertible donation from
+     * firstIndex on is excess; the one at firstIndex keeps only
+     * firstRemainderCents after spending is subtracted.
+     *
+     * @param firstIndex The row of the first excess donation, or -1 if there is none
+     * @param firstRemainderCents What is left of that donation, in goal-currency cents
+     * @param count The number of excess donations
+     */
+    record Excess(int firstIndex, long firstRemainderCents, int count) {
+        static final Excess NONE = new Excess(-1, 0, 0);
+    }
+
+    private volatile long reconcileIntervalMillis;
+    private Rows rows = new Rows(0);
+    private long lastSeenId = 0;
+    private long lastFullReloadMillis = 0;
+    private final MonthlyRollup rollup = new MonthlyRollup();
+    private ExchangeRates rates = new ExchangeRates(Map.of());
+    private long totalAmountCents = 0;
+    private int donationCount = 0;
+    private long totalSpendingCents = 0;
+    private boolean loaded = false;
+    // Set while the rows may be ahead of the totals, excess and leaderboard derived from them
+    private boolean derivedStale = false;
+
+    private Excess excess = Excess.NONE;
+    private final DonorLeaderboard leaderboard = new DonorLeaderboard(LEADERBOARD_SIZE);
+
+    public DonationLedger(long reconcileIntervalMillis) {
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+    }
+
+    /**
+     * Changes how often the full table is reloaded, effective from the next refresh
+     *
+     * @param reconcileIntervalMillis The new interval between full reloads
+     */
+    public void setReconcileIntervalMillis(long reconcileIntervalMillis) {
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+    }
+
+    /**
+     * The ledger's donations as parallel columns, ordered oldest first. Names
+     * and currency codes are shared references, so a row costs a few primitive
+     * slots and no objects of its own.
+     */
+    static final class Rows {
+        private long[] ids;
+        private long[] amountCents;
+        private int[] epochDays;
+        private String[] names;
+        private String[] currencies;
+        private int size;
+
+        Rows(int capacity) {
+            ids = new long[capacity];
+            amountCents = new long[capacity];
+            epochDays = new int[capacity];
+            names = new String[capacity];
+            currencies = new String[capacity];
+        }
+
+        /**
+         * @param donations Donations ordered oldest first
+         * @return the donations as columns
+         */
+        static Rows of(List<Donation> donations) {
+            Rows rows = new Rows(donations.size());
+            for (Donation donation : donations) {
+                rows.add(donation);
+            }
+            return rows;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void add(Donation donation) {
+            if (size == ids.length) {
+                grow(Math.max(16, size * 2));
+            }
+            set(size++, donation);
+        }
+
+        private void set(int index, Donation donation) {
+            ids[index] = donation.id();
+            amountCents[index] = donation.amountCents();
+            epochDays[index] = (int) donation.date().toEpochDay();
+            names[index] = donation.name();
+            currencies[index] = donation.currency();
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            names = Arrays.copyOf(names, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+        }
+
+        /**
+         * @return true if the donation sorts at or after the last row
+         */
+        private boolean appendable(Donation donation) {
+            if (size == 0) {
+                return true;
+            }
+            long day = donation.date().toEpochDay();
+            int last = size - 1;
+            return epochDays[last] < day || (epochDays[last] == day && ids[last] <= donation.id());
+        }
+
+        /**
+         * Merges donations sorted in ledger order into the rows, in one pass
+         */
+        private void merge(List<Donation> sorted) {
+            Rows merged = new Rows(size + sorted.size());
+            int i = 0;
+            for (Donation donation : sorted) {
+                long day = donation.date().toEpochDay();
+                while (i < size && (epochDays[i] < day || (epochDays[i] == day && ids[i] <= donation.id()))) {
+                    merged.copyFrom(this, i++);
+                }
+                merged.set(merged.size++, donation);
+            }
+            while (i < size) {
+                merged.copyFrom(this, i++);
+            }
+            ids = merged.ids;
+            amountCents = merged.amountCents;
+            epochDays = merged.epochDays;
+            names = merged.names;
+            currencies = merged.currencies;
+            size = merged.size;
+        }
+
+        private void copyFrom(Rows source, int index) {
+            ids[size] = source.ids[index];
+            amountCents[size] = source.amountCents[index];
+            epochDays[size] = source.epochDays[index];
+            names[size] = source.names[index];
+            currencies[size] = source.currencies[index];
+            size++;
+        }
+
+        /**
+         * @return true if the rows hold exactly the given donations, in order
+         */
+        private boolean matches(List<Donation> donations) {
+            if (donations.size() != size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                Donation donation = donations.get(i);
+                if (ids[i] != donation.id() || amountCents[i] != donation.amountCents()
+                        || epochDays[i] != donation.date().toEpochDay()
+                        || !names[i].equals(donation.name()) || !currencies[i].equals(donation.currency())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String name(int index) {
+            return names[index];
+        }
+
+        String currency(int index) {
+            return currencies[index];
+        }
+
+        long amountCents(int index) {
+            return amountCents[index];
+        }
+
+        int epochDay(int index) {
+            return epochDays[index];
+        }
+    }
+
+    /**
+     * Brings the ledger up to date. Performs a full reload on the first call
+     * and whenever the reconciliation interval has passed; otherwise fetches
+     * only donations newer than the watermark.
+     *
+     * @param repository The repository to read from
+     * @param ratesLookup Supplies the exchange rates into the goal currency; only called once the
+     *                    ledger queries have succeeded, so an unreachable database is not waited on twice
+     * @return true if the donations, total spending or rates changed since the last refresh, or if
+     *         the previous refresh failed after taking in new rows
+     * @throws SQLException if a query fails; the published totals are left unchanged in that case
+     *         and the next refresh rederives them in full
+     */
+    public synchronized boolean refresh(DonationRepository repository, Supplier<ExchangeRates> ratesLookup)
+            throws SQLException {
+        long now = System.currentTimeMillis();
+
+        // Read spending first: each step below only mutates state once its query has succeeded
+        long spendingCents = readTotalSpending(repository);
+
+        // The rows are committed before the rates are looked up and the totals rederived. If anything
+        // below throws, the flag stays set and the next refresh rederives everything even without new rows
+        boolean recovering = derivedStale;
+        derivedStale = true;
+
+        boolean changed;
+        boolean reloaded = false;
+        List<Donation> added = List.of();
+        if (!loaded || now - lastFullReloadMillis >= reconcileIntervalMillis) {
+            changed = reloaded = reloadAll(repository);
+            lastFullReloadMillis = now;
+        } else {
+            added = fetchNewDonations(repository);
+            changed = !added.isEmpty();
+        }
+
+        if (!loaded || spendingCents != totalSpendingCents) {
+            totalSpendingCents = spendingCents;
+            changed = true;
+        }
+
+        ExchangeRates rates = ratesLookup.get();
+        boolean ratesChanged = !rates.equals(this.rates);
+        if (ratesChanged) {
+            this.rates = rates;
+            changed = true;
+        }
+
+        // New donations only move their donors; everything else re-ranks from the ledger
+        YearMonth month = YearMonth.now();
+        if (recovering || reloaded || ratesChanged || !leaderboard.isFor(month)) {
+            leaderboard.rebuild(rows, rates, month);
+        } else if (!added.isEmpty()) {
+            leaderboard.addAll(added, rates);
+        }
+        if (recovering || reloaded || ratesChanged) {
+            rollup.rebuild(rows, rates);
+        } else if (!added.isEmpty()) {
+            rollup.addAll(added, rates);
+        }
+
+        changed |= recovering;
+        if (changed) {
+            publishTotals();
+            excess = deriveExcess(rows, totalSpendingCents, rates);
+        }
+        derivedStale = false;
+        loaded = true;
+        return changed;
+    }
+
+    private boolean reloadAll(DonationRepository repository) throws SQLException {
+        List<Donation> reloaded;
+        long start = System.nanoTime();
+        try {
+            reloaded = repository.findAllDonations();
+        } catch (SQLException e) {
+            CraftFundsMetrics.QUERY_LEDGER_FULL.recordError();
+            throw e;
+        }
+        CraftFundsMetrics.QUERY_LEDGER_FULL.recordSince(start);
+
+        if (loaded && rows.matches(reloaded)) {
+            return false;
+        }
+
+        rows = Rows.of(reloaded);
+        lastSeenId = 0;
+        for (Donation donation : reloaded) {
+            lastSeenId = Math.max(lastSeenId, donation.id());
+        }
+        CraftFunds.LOGGER.debug("Reconciled donation ledger: {} donations", rows.size());
+        return true;
+    }
+
+    private List<Donation> fetchNewDonations(DonationRepository repository) throws SQLException {
+        List<Donation> fetched;
+        long start = System.nanoTime();
+        try {
+            fetched = repository.findDonationsAfter(lastSeenId);
+        } catch (SQLException e) {
+            CraftFundsMetrics.QUERY_LEDGER_DELTA.recordError();
+            throw e;
+        }
+        CraftFundsMetrics.QUERY_LEDGER_DELTA.recordSince(start);
+
+        // New donations are almost always the latest, so appending keeps the ledger ordered
+        boolean ordered = true;
+        Donation previous = null;
+        for (Donation donation : fetched) {
+            if (previous == null ? !rows.appendable(donation) : LEDGER_ORDER.compare(previous, donation) > 0) {
+                ordered = false;
+            }
+            previous = donation;
+            lastSeenId = Math.max(lastSeenId, donation.id());
+        }
+        if (ordered) {
+            for (Donation donation : fetched) {
+                rows.add(donation);
+            }
+        } else {
+            // Backfilled donations arrive out of date order; sort just the new ones and merge them in one pass
+            List<Donation> sorted = new ArrayList<>(fetched);
+            sorted.sort(LEDGER_ORDER);
+            rows.merge(sorted);
+        }
+        if (!fetched.isEmpty()) {
+            CraftFunds.LOGGER.debug("Added {} new donation(s) to ledger", fetched.size());
+        }
+        return fetched;
+    }
+
+    /**
+     * Publishes the monthly sums; the all-time totals are the sum of the months
+     */
+    private void publishTotals() {
+        long cents = 0;
+        int count = 0;
+        for (MonthlyRollup.MonthTotal month : rollup.publish().values()) {
+            cents += month.totalCents();
+            count += month.donationCount();
+        }
+        totalAmountCents = cents;
+        donationCount = count;
+    }
+
+    private long readTotalSpending(DonationRepository repository) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            long spending = repository.findTotalSpending();
+            CraftFundsMetrics.QUERY_SPENDING.recordSince(start);
+            return spending;
+        } catch (SQLException e) {
+            CraftFundsMetrics.QUERY_SPENDING.recordError();
+            throw e;
+        }
+    }
+
+    /**
+     * Walks the ledger oldest first, subtracting total spending. Donations
+     * fully consumed by spending are skipped, the first partially consumed
+     * one keeps its excess portion and everything after it is kept in full.
+     * Amounts are converted to the goal currency; donations without a rate
+     * are skipped. Only the start of the excess is recorded, so the walk
+     * allocates nothing per donation.
+     */
+    static Excess deriveExcess(Rows rows, long totalSpendingCents, ExchangeRates rates) {
+        long remainingSpending = totalSpendingCents;
+        int firstIndex = -1;
+        long firstRemainder = 0;
+        int count = 0;
+
+        // Consecutive donations are nearly always in the same currency, so only look up a rate when it changes
+        String currency = null;
+        double rate = Double.NaN;
+        for (int i = 0; i < rows.size; i++) {
+            if (!rows.currencies[i].equals(currency)) {
+                currency = rows.currencies[i];
+                rate = rates.rateFor(currency);
+            }
+            if (Double.isNaN(rate)) {
+                continue;
+            }
+            if (firstIndex < 0) {
+                long amount = Money.convert(rows.amountCents[i], rate);
+                if (remainingSpending > 0 && amount <= remainingSpending) {
+                    remainingSpending -= amount;
+                    continue;
+                }
+                firstIndex = i;
+                firstRemainder = remainingSpending > 0 ? amount - remainingSpending : amount;
+            }
+            count++;
+        }
+        return firstIndex < 0 ? Excess.NONE : new Excess(firstIndex, firstRemainder, count);
+    }
+
+    /**
+     * Materializes the oldest excess donations
+     *
+     * @param rows The ledger rows
+     * @param excess Where the excess begins, from {@link #deriveExcess}
+     * @param rates The rates the excess was derived with
+     * @param limit The most donations to return
+     * @return up to limit excess donations, oldest first
+     */
+    static List<ExcessDonation> excessDonations(Rows rows, Excess excess, ExchangeRates rates, int limit) {
+        if (excess.firstIndex() < 0) {
+            return List.of();
+        }
+        List<ExcessDonation> donations = new ArrayList<>(Math.min(limit, excess.count()));
+        for (int i = excess.firstIndex(); i < rows.size && donations.size() < limit; i++) {
+            double rate = rates.rateFor(rows.currencies[i]);
+            if (Double.isNaN(rate)) {
+                continue;
+            }
+            long amount = i == excess.firstIndex() ? excess.firstRemainderCents() : Money.convert(rows.amountCents[i], rate);
+            donations.add(new ExcessDonation(rows.names[i], amount, LocalDate.ofEpochDay(rows.epochDays[i])));
+        }
+        return Collections.unmodifiableList(donations);
+    }
+
+    public synchronized long getTotalAmountCents() {
+        return totalAmountCents;
+    }
+
+    public synchronized int getDonationCount() {
+        return donationCount;
+    }
+
+    public synchronized long getTotalSpendingCents() {
+        return totalSpendingCents;
+    }
+
+    /**
+     * @return the top donors snapshot, or null before the first refresh. Safe to call from any thread.
+     */
+    public DonorStandings getDonorStandings() {
+        return leaderboard.getStandings();
+    }
+
+    /**
+     * @return donation totals per month, oldest first, or null before the first refresh. Safe to call from any thread.
+     */
+    public NavigableMap<YearMonth, MonthlyRollup.MonthTotal> getMonthTotals() {
+        return rollup.getMonthTotals();
+    }
+
+    /**
+     * @return the number of donations not yet consumed by spending
+     */
+    public synchronized int getExcessDonationCount() {
+        return excess.count();
+    }
+
+    /**
+     * @param limit The most donations to return
+     * @return the oldest donations not yet consumed by spending, oldest first
+     */
+    public synchronized List<ExcessDonation> getExcessDonations(int limit) {
+        return excessDonations(rows, excess, rates, limit);
+    }
+}
@@ -0,0 +1,117 @@
+package com.jmelgar1.craftfunds;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage for donations and the server's total spending.
+ *
+ * Implementations are thread-safe and are shared for the lifetime of a
+ * {@link DatabaseService}. Every method blocks, so callers must run them on
+ * the database executor rather than the server thread.
+ */
+public interface DonationRepository extends AutoCloseable {
+
+    /**
+     * A donation to be stored, with its amount in cents; its id is assigned by the database
+     */
+    record NewDonation(String name, long amountCents, String currency, LocalDate date) {}
+
+    /**
+     * @return a short name for the backend, used in logs and metrics
+     */
+    String getName();
+
+    /**
+     * @return every donation in every currency, ordered by date then id
+     * @throws SQLException if the donations cannot be read
+     */
+    List<DonationLedger.Donation> findAllDonations() throws SQLException;
+
+    /**
+     * @param lastSeenId The highest donation id already known to the caller
+     * @return every donation with a greater id, ordered by id
+     * @throws SQLException if the donations cannot be read
+     */
+    List<DonationLedger.Donation> findDonationsAfter(long lastSeenId) throws SQLException;
+
+    /**
+     * Reads one page of donation history, newest first, using keyset pagination on (date, id)
+     *
+     * @param before Only donations ordered before this cursor are returned, or null to start from the newest
+     * @param limit The maximum number of donations to return
+     * @return up to limit donations, ordered by date then id, descending
+     * @throws SQLException if the donations cannot be read
+     */
+    List<DonationLedger.Donation> findDonationsBefore(DonationCursor before, int limit) throws SQLException;
+
+    /**
+     * Reads only the (date, id) keys of donation history, newest first. Used to
+     * locate page boundaries without transferring whole rows.
+     *
+     * @param before Only keys ordered before this cursor are returned, or null to start from the newest
+     * @param limit The maximum number of keys to return
+     * @return up to limit keys, ordered by date then id, descending
+     * @throws SQLException if the keys cannot be read
+     */
+    List<DonationCursor> findCursorsBefore(DonationCursor before, int limit) throws SQLException;
+
+    /**
+     * Stores donations in a single transaction, as one batched statement
+     *
+     * @param donations The donations to insert
+     * @throws SQLException if the insert fails; no donation is stored in that case
+     */
+    void insertDonations(List<NewDonation> donations) throws SQLException;
+
+    /**
+     * Stores imported donations in a single transaction, skipping any whose
+     * transaction id is already stored. Requires a unique transaction_id column
+     * on the donations table.
+     *
+     * @param donations The donations to insert, keyed by their external transaction id
+     * @return the number of donations actually inserted
+     * @throws SQLException if the insert fails; no donation is stored in that case
+     */
+    int insertTransactions(Map<String, NewDonation> donations) throws SQLException;
+
+    /**
+     * @return the total amount spent on server costs in cents, or 0 if none is recorded
+     * @throws SQLException if the spending total cannot be read
+     */
+    long findTotalSpending() throws SQLException;
+
+    /**
+     * @return rates into the goal currency keyed by currency code, read in a single query
+     * @throws SQLException if the rates cannot be read, including when the backend has no rate table
+     */
+    Map<String, Double> findExchangeRates() throws SQLException;
+
+    /**
+     * Loads the driver and opens the pool's idle connections, preparing the
+     * schema where the backend manages one, so the first query does not pay
+     * for them
+     *
+     * @return the number of idle connections ready afterwards
+     * @throws SQLException if the database cannot be reached
+     */
+    int warmUp() throws SQLException;
+
+    /**
+     * @return the number of connections currently in use
+     */
+    int getActiveConnectionCount();
+
+    /**
+     * @return the number of open connections waiting to be reused
+     */
+    int getIdleConnectionCount();
+
+    /**
+     * Releases every connection held by the repository
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,184 @@
+package com.jmelgar1.craftfunds;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Ranks donors by their total donations, for all time and for the current
+ * month, aggregated by name and converted to the goal currency.
+ *
+ * Each ranking keeps every donor in a sorted set, so a new donation moves one
+ * donor in O(log n) and reading the top k costs O(k); nothing is re-aggregated
+ * unless the ledger is reloaded, the rates change or the month rolls over.
+ * Updates are not thread-safe: the leaderboard is owned by {@link DonationLedger}
+ * and only updated under its lock. Readers on any thread get immutable
+ * {@link DonorStandings} snapshots from {@link #getStandings()}.
+ */
+public class DonorLeaderboard {
+    /**
+     * A donor and their total donations in goal-currency cents
+     */
+    public record Donor(String name, long totalCents) {}
+
+    private static final Comparator<Donor> RANK_ORDER =
+        Comparator.comparingLong(Donor::totalCents).reversed().thenComparing(Donor::name);
+
+    private final int maxShown;
+    private final Ranking lifetime = new Ranking();
+    private final Ranking monthly = new Ranking();
+    private YearMonth month;
+    private long monthFirstDay;
+    private long monthLastDay;
+    private volatile DonorStandings standings;
+
+    /**
+     * @param maxShown The most donors kept in each published snapshot
+     */
+    public DonorLeaderboard(int maxShown) {
+        this.maxShown = maxShown;
+    }
+
+    /**
+     * @return true if the monthly ranking covers the given month
+     */
+    public boolean isFor(YearMonth month) {
+        return month.equals(this.month);
+    }
+
+    /**
+     * Recomputes both rankings from the whole ledger. Totals are summed per
+     * donor first and ranked once, so the walk over the rows allocates only
+     * per distinct donor.
+     *
+     * @param rows Every donation in the ledger
+     * @param rates The exchange rates into the goal currency
+     * @param month The month covered by the monthly ranking
+     */
+    void rebuild(DonationLedger.Rows rows, ExchangeRates rates, YearMonth month) {
+        setMonth(month);
+        lifetime.clear();
+        monthly.clear();
+
+        String currency = null;
+        double rate = Double.NaN;
+        for (int i = 0; i < rows.size(); i++) {
+            if (!rows.currency(i).equals(currency)) {
+                currency = rows.currency(i);
+                rate = rates.rateFor(currency);
+            }
+            if (Double.isNaN(rate)) {
+                continue;
+            }
+            long cents = Money.convert(rows.amountCents(i), rate);
+            lifetime.accumulate(rows.name(i), cents);
+            int day = rows.epochDay(i);
+            if (day >= monthFirstDay && day <= monthLastDay) {
+                monthly.accumulate(rows.name(i), cents);
+            }
+        }
+        lifetime.rank();
+        monthly.rank();
+        publish();
+    }
+
+    private void setMonth(YearMonth month) {
+        this.month = month;
+        this.monthFirstDay = month.atDay(1).toEpochDay();
+        this.monthLastDay = month.atEndOfMonth().toEpochDay();
+    }
+
+    /**
+     * Adds newly seen donations to the rankings
+     *
+     * @param donations The new donations
+     * @param rates The exchange rates into the goal currency
+     */
+    public void addAll(List<DonationLedger.Donation> donations, ExchangeRates rates) {
+        for (DonationLedger.Donation donation : donations) {
+            double rate = rates.rateFor(donation.currency());
+            if (Double.isNaN(rate)) {
+                continue;
+            }
+            long cents = Money.convert(donation.amountCents(), rate);
+            lifetime.add(donation.name(), cents);
+            long day = donation.date().toEpochDay();
+            if (day >= monthFirstDay && day <= monthLastDay) {
+                monthly.add(donation.name(), cents);
+            }
+        }
+        publish();
+    }
+
+    private void publish() {
+        // Keep the previous snapshot, and its rendered lines, unless the visible rankings moved
+        List<Donor> topLifetime = lifetime.top(maxShown);
+        List<Donor> topMonthly = monthly.top(maxShown);
+        DonorStandings current = standings;
+        if (current == null || !current.month.equals(month)
+                || !current.lifetime.equals(topLifetime) || !current.monthly.equals(topMonthly)) {
+            standings = new DonorStandings(topLifetime, topMonthly, month);
+        }
+    }
+
+    /**
+     * @return the latest snapshot, or null before the first rebuild
+     */
+    public DonorStandings getStandings() {
+        return standings;
+    }
+
+    /**
+     * Donors ordered by total, with their running totals
+     */
+    private static final class Ranking {
+        // Mutable one-element holders, so summing into an existing donor allocates nothing
+        private final Map<String, long[]> totals = new HashMap<>();
+        private final TreeSet<Donor> ranked = new TreeSet<>(RANK_ORDER);
+
+        /**
+         * Adds to a donor's total without re-ranking; call {@link #rank()} afterwards
+         */
+        private void accumulate(String name, long cents) {
+            totals.computeIfAbsent(name, key -> new long[1])[0] += cents;
+        }
+
+        private void rank() {
+            ranked.clear();
+            for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+                ranked.add(new Donor(entry.getKey(), entry.getValue()[0]));
+            }
+        }
+
+        private void add(String name, long cents) {
+            long[] total = totals.get(name);
+            if (total == null) {
+                total = new long[1];
+                totals.put(name, total);
+            } else {
+                ranked.remove(new Donor(name, total[0]));
+            }
+            total[0] += cents;
+            ranked.add(new Donor(name, total[0]));
+        }
+
+        private List<Donor> top(int count) {
+            List<Donor> top = new ArrayList<>(Math.min(count, ranked.size()));
+            Iterator<Donor> iterator = ranked.iterator();
+            while (top.size() < count && iterator.hasNext()) {
+                top.add(iterator.next());
+            }
+            return top;
+        }
+
+        private void clear() {
+            totals.clear();
+            ranked.clear();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jmelgar1.craftfunds;
+
+import java.time.YearMonth;
+import java.util.List;
+import net.minecraft.text.Text;
+
+/**
+ * Immutable snapshot of the top donors. A new instance is published only when
+ * the rankings change, and each donor's chat line is rendered once, when the
+ * snapshot is created, so /fund top only picks out pre-rendered lines.
+ */
+public final class DonorStandings {
+    public final List<DonorLeaderboard.Donor> lifetime;
+    public final List<DonorLeaderboard.Donor> monthly;
+    public final YearMonth month;
+    private final List<Text> lifetimeLines;
+    private final List<Text> monthlyLines;
+
+    public DonorStandings(List<DonorLeaderboard.Donor> lifetime, List<DonorLeaderboard.Donor> monthly, YearMonth month) {
+        this.lifetime = List.copyOf(lifetime);
+        this.monthly = List.copyOf(monthly);
+        this.month = month;
+        this.lifetimeLines = FundMessageRenderer.renderDonors(this.lifetime);
+        this.monthlyLines = FundMessageRenderer.renderDonors(this.monthly);
+    }
+
+    /**
+     * @param count The number of donors wanted
+     * @return the pre-rendered lines of the top lifetime donors, at most count
+     */
+    public List<Text> getLifetimeLines(int count) {
+        return lifetimeLines.subList(0, Math.min(count, lifetimeLines.size()));
+    }
+
+    /**
+     * @param count The number of donors wanted
+     * @return the pre-rendered lines of the top donors this month, at most count
+     */
+    public List<Text> getMonthlyLines(int count) {
+        return monthlyLines.subList(0, Math.min(count, monthlyLines.size()));
+    }
+}
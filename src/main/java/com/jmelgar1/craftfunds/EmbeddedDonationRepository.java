@@ -0,0 +1,105 @@
+package com.jmelgar1.craftfunds;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Donation repository stored in a local H2 database file, running inside the
+ * server process. Suited to small servers that don't want to run MySQL: there
+ * is no network round trip and no credentials to configure.
+ *
+ * H2 runs in MySQL compatibility mode so the shared queries behave the same as
+ * on the MySQL backend. The tables are created on first use.
+ */
+public class EmbeddedDonationRepository extends JdbcDonationRepository {
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS donations ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "name VARCHAR(255) NOT NULL, "
+            + "amount DECIMAL(12, 2) NOT NULL, "
+            + "currency CHAR(3) NOT NULL DEFAULT 'USD', "
+            + "date DATE NOT NULL)",
+        // Added after the first release; existing databases gain the column on startup
+        "ALTER TABLE donations ADD COLUMN IF NOT EXISTS transaction_id VARCHAR(64)",
+        "CREATE INDEX IF NOT EXISTS idx_donations_date_id ON donations (date, id)",
+        "CREATE UNIQUE INDEX IF NOT EXISTS idx_donations_transaction_id ON donations (transaction_id)",
+        "CREATE TABLE IF NOT EXISTS total_spending (total_spent DECIMAL(12, 2) NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS exchange_rates (currency CHAR(3) PRIMARY KEY, rate DECIMAL(18, 8) NOT NULL)"
+    };
+
+    private final Path databasePath;
+    private volatile boolean schemaReady = false;
+
+    public EmbeddedDonationRepository(CraftFundsConfig config) {
+        this(Paths.get(config.embeddedDatabasePath()).toAbsolutePath(), config);
+    }
+
+    private EmbeddedDonationRepository(Path databasePath, CraftFundsConfig config) {
+        super(buildUrl(databasePath), "sa", "", config);
+        this.databasePath = databasePath;
+    }
+
+    private static String buildUrl(Path databasePath) {
+        return "jdbc:h2:file:" + databasePath + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    }
+
+    /**
+     * Loads the driver on first use; see MySqlDonationRepository
+     */
+    private static final class DriverHolder {
+        private static final boolean LOADED = load();
+
+        private static boolean load() {
+            try {
+                Class.forName("org.h2.Driver");
+                CraftFunds.LOGGER.info("H2 JDBC driver loaded successfully");
+                return true;
+            } catch (ClassNotFoundException e) {
+                CraftFunds.LOGGER.error("Failed to load H2 JDBC driver: {}", e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    @Override
+    protected void loadDriver() throws SQLException {
+        if (!DriverHolder.LOADED) {
+            throw new SQLException("H2 JDBC driver is not available");
+        }
+    }
+
+    @Override
+    protected Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        if (!schemaReady) {
+            try {
+                createSchema(connection);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    private synchronized void createSchema(Connection connection) throws SQLException {
+        if (schemaReady) {
+            return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                stmt.execute(sql);
+            }
+        }
+        schemaReady = true;
+        CraftFunds.LOGGER.info("Embedded donation database ready at {}", databasePath);
+    }
+
+    @Override
+    public String getName() {
+        return "embedded";
+    }
+}
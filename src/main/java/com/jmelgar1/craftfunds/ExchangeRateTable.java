@@ -0,0 +1,64 @@
+package com.jmelgar1.craftfunds;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * In-memory cache of the exchange rates used to convert donations.
+ *
+ * Rates come from the funding.fx.rates config key, overridden by the
+ * exchange_rates table when the database has one. The table is read in a
+ * single query at most once per refresh interval; between refreshes the
+ * cached rates are returned without touching the database.
+ */
+public class ExchangeRateTable {
+    private final ExchangeRates configuredRates;
+    private final long refreshIntervalMillis;
+
+    private ExchangeRates current;
+    private long loadedAtMillis;
+    private boolean loaded = false;
+    private boolean tableUnavailableLogged = false;
+
+    /**
+     * @param configuredRates Rates from craftfunds.conf, used when the database has none
+     * @param refreshIntervalMillis How long database rates are cached before being re-read
+     */
+    public ExchangeRateTable(Map<String, Double> configuredRates, long refreshIntervalMillis) {
+        this.configuredRates = new ExchangeRates(configuredRates);
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.current = this.configuredRates;
+    }
+
+    /**
+     * Returns the current rates, re-reading the database table if the cached
+     * copy has expired. A failed read keeps the previous rates.
+     *
+     * @param repository The repository to read database rates from
+     * @return The rates to convert donations with
+     */
+    public synchronized ExchangeRates get(DonationRepository repository) {
+        long now = System.currentTimeMillis();
+        if (loaded && now - loadedAtMillis < refreshIntervalMillis) {
+            return current;
+        }
+
+        try {
+            ExchangeRates refreshed = configuredRates.withOverrides(repository.findExchangeRates());
+            if (!refreshed.equals(current)) {
+                CraftFunds.LOGGER.info("Exchange rates updated: {}", refreshed);
+            }
+            current = refreshed;
+            tableUnavailableLogged = false;
+        } catch (SQLException e) {
+            // The exchange_rates table is optional; fall back to the configured rates quietly after the first warning
+            if (!tableUnavailableLogged) {
+                CraftFunds.LOGGER.warn("Could not read exchange_rates table, using configured rates: {}", e.getMessage());
+                tableUnavailableLogged = true;
+            }
+        }
+        loaded = true;
+        loadedAtMillis = now;
+        return current;
+    }
+}
@@ -0,0 +1,79 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable table of exchange rates into the goal currency (USD), in which the
+ * funding total and the monthly goal are expressed. A rate is the number of
+ * goal-currency units one unit of the other currency is worth.
+ */
+public final class ExchangeRates {
+    public static final String GOAL_CURRENCY = "USD";
+
+    private final Map<String, Double> rates;
+
+    /**
+     * @param ratesToGoal Rates keyed by ISO currency code; the goal currency always has a rate of 1
+     */
+    public ExchangeRates(Map<String, Double> ratesToGoal) {
+        Map<String, Double> copy = new HashMap<>();
+        ratesToGoal.forEach((currency, rate) -> copy.put(normalize(currency), rate));
+        copy.put(GOAL_CURRENCY, 1.0);
+        this.rates = Map.copyOf(copy);
+    }
+
+    /**
+     * @param currency An ISO currency code
+     * @return the rate into the goal currency, or NaN if the currency has no rate
+     */
+    public double rateFor(String currency) {
+        Double rate = rates.get(currency);
+        return rate == null ? Double.NaN : rate;
+    }
+
+    /**
+     * @param overrides Rates that take precedence over the ones in this table
+     * @return a new table with the overrides applied
+     */
+    public ExchangeRates withOverrides(Map<String, Double> overrides) {
+        if (overrides.isEmpty()) {
+            return this;
+        }
+        Map<String, Double> merged = new HashMap<>(rates);
+        overrides.forEach((currency, rate) -> merged.put(normalize(currency), rate));
+        return new ExchangeRates(merged);
+    }
+
+    /**
+     * The rules every rate source is held to, so the config and the
+     * exchange_rates table accept exactly the same rates
+     *
+     * @param currency An ISO currency code, not yet normalized
+     * @param rate The rate into the goal currency
+     * @return true for a three-letter code and a positive, finite rate
+     */
+    static boolean isValid(String currency, double rate) {
+        return currency != null && currency.trim().length() == 3 && Double.isFinite(rate) && rate > 0;
+    }
+
+    static String normalize(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ExchangeRates other && rates.equals(other.rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return rates.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeRates" + rates;
+    }
+}
@@ -1,17 +1,32 @@
 package com.jmelgar1.craftfunds;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
-import net.minecraft.text.HoverEvent;
-import net.minecraft.text.MutableText;
-import net.minecraft.util.Formatting;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class FundCommand {
+    private static final int DEFAULT_TOP_DONORS = 5;
+    private static final int MAX_TOP_DONORS = 10;
+    
+    /**
+     * Shown while the report is fetched; every other message ends the request
+     */
+    static final Text LOADING_MESSAGE = Text.literal("§7Retrieving funding information...");
+    static final Text STILL_LOADING_MESSAGE = Text.literal("§7Funding information is still loading, please try again shortly.");
+    static final Text FAILURE_MESSAGE = Text.literal("§cFailed to retrieve funding information. Please try again later.");
 
     /**
      * Registers the /fund command with the command dispatcher.
@@ -19,6 +34,9 @@ public class FundCommand {
      * The command is configured to:
      * - Require the sender to be a player (not console/command block)
      * - Execute the fund command logic when invoked
+     * - Page through older donations with /fund history [page]
+     * - Show the top donors with /fund top [n]
+     * - Show one month's donations with /fund month [yyyy-mm]
      * - Provide appropriate error messages for invalid usage
      * 
      * @param dispatcher The command dispatcher to register with
@@ -28,6 +46,18 @@ public class FundCommand {
             CommandManager.literal("fund")
                 .requires(source -> source.isExecutedByPlayer()) // Only players can use this command
                 .executes(FundCommand::execute)
+                .then(CommandManager.literal("history")
+                    .executes(context -> executeHistory(context, 1))
+                    .then(CommandManager.argument("page", IntegerArgumentType.integer(1))
+                        .executes(context -> executeHistory(context, IntegerArgumentType.getInteger(context, "page")))))
+                .then(CommandManager.literal("top")
+                    .executes(context -> executeTop(context, DEFAULT_TOP_DONORS))
+                    .then(CommandManager.argument("n", IntegerArgumentType.integer(1, MAX_TOP_DONORS))
+                        .executes(context -> executeTop(context, IntegerArgumentType.getInteger(context, "n")))))
+                .then(CommandManager.literal("month")
+                    .executes(context -> executeMonth(context, null))
+                    .then(CommandManager.argument("month", StringArgumentType.word())
+                        .executes(context -> executeMonth(context, StringArgumentType.getString(context, "month")))))
         );
     }
 
@@ -36,7 +66,7 @@ public class FundCommand {
      * 
      * This method:
      * 1. Validates that the command source is a player
-     * 2. Queries the database for monthly funding totals
+     * 2. Reads the cached funding snapshot, or resends the last one if the player is throttled
      * 3. Sends the response back to the player
      * 4. Logs the command execution for server monitoring
      * 5. Returns success status to the command system
@@ -50,80 +80,10 @@ public class FundCommand {
         try {
             // Get the player who executed the command
             ServerPlayerEntity player = source.getPlayerOrThrow();
+            MinecraftServer server = source.getServer();
             
-            // Log the command execution
-            CraftFunds.LOGGER.info("Player {} executed /fund command, querying database for funding totals", 
-                player.getName().getString());
-            
-            // Create database service and query for funding totals
-            DatabaseService databaseService = new DatabaseService();
-            
-            // Show loading message to player
-            player.sendMessage(Text.literal("§7Retrieving funding information..."), false);
-            
-            // Query database asynchronously
-            CompletableFuture<DatabaseService.FundingReport> futureResult = databaseService.getMonthlyFundingTotal();
-            
-            futureResult.thenAccept(report -> {
-                // Send header message
-                player.sendMessage(Text.literal("=== Server Fund ===").formatted(Formatting.DARK_GREEN), false);
-                
-                // Create hover text component with conditional coloring
-                if (report.summary.contains("donation)") || report.summary.contains("donations)")) {
-                    // Use the net amount for conditional coloring
-                    double netAmount = report.netAmount;
-                    
-                    // Determine color based on net amount (< 15 = red, >= 15 = gold)
-                    Formatting amountColor = netAmount < 15 ? Formatting.RED : Formatting.GOLD;
-                    
-                    // Find the part with donation count and make it hoverable
-                    String[] parts = report.summary.split("\\(");
-                    if (parts.length > 1) {
-                        // Remove existing color codes and apply new color
-                        String beforeHover = parts[0].replaceAll("§.", "");
-                        String hoverPart = "(" + parts[1];
-                        
-                        MutableText finalMessage = Text.literal(beforeHover)
-                            .formatted(amountColor)
-                            .append(Text.literal(hoverPart)
-                                .styled(style -> style
-                                .withColor(Formatting.GRAY)
-                                .withHoverEvent(new HoverEvent.ShowText(report.donationDetails))
-                                ));
-                        
-                        player.sendMessage(finalMessage, false);
-                    } else {
-                        // Fallback if parsing fails
-                        MutableText message = Text.literal(report.summary.replaceAll("§.", ""))
-                            .formatted(amountColor);
-                        player.sendMessage(message, false);
-                    }
-                } else {
-                    // No donations case
-                    player.sendMessage(Text.literal(report.summary), false);
-                }
-                
-                // Calculate and display months covered or funding goal message
-                if (report.netAmount < 15) {
-                    player.sendMessage(Text.literal("§cServer is below the funding goal, use /donate"), false);
-                } else {
-                    int monthsCovered = (int) Math.floor(report.netAmount / 15.0);
-                    if (monthsCovered > 0) {
-                        String monthText = monthsCovered == 1 ? "month" : "months";
-                        player.sendMessage(Text.literal("§7Covers " + monthsCovered + " " + monthText + " of server costs"), false);
-                        player.sendMessage(Text.literal("§7Use '/donate' to fund the server"), false);
-                    }
-                }
-                
-                CraftFunds.LOGGER.info("Fund command completed successfully for player {}", 
-                    player.getName().getString());
-            }).exceptionally(throwable -> {
-                // Handle any errors that occurred during database query
-                CraftFunds.LOGGER.error("Error retrieving funding data for player {}", 
-                    player.getName().getString(), throwable);
-                player.sendMessage(Text.literal("§cFailed to retrieve funding information. Please try again later."), false);
-                return null;
-            });
+            serveFund(player, player.getUuid(), player.getName().getString(), MessageRecipients.PLAYERS, server,
+                CraftFunds.getFundingCache(), CraftFunds.getFundRateLimiter());
             
             // Return 1 to indicate successful command execution (async operation will continue)
             return 1;
@@ -143,4 +103,169 @@ public class FundCommand {
             return 0;
         }
     }
+
+    /**
+     * Serves one /fund request from the cached snapshot. Shared by the command
+     * and the join-storm load test, which passes stub recipients and its own
+     * stand-in for the server thread. Must be called on the server thread.
+     * 
+     * @param player The recipient
+     * @param playerId The recipient's id, for rate limiting
+     * @param playerName The recipient's name, for logging
+     * @param recipients How messages reach the recipient
+     * @param serverThread Runs the reply on the server thread
+     * @param fundingCache The cache serving the snapshot
+     * @param rateLimiter The per-player /fund limiter
+     */
+    static <P> void serveFund(P player, UUID playerId, String playerName, MessageRecipients<P> recipients,
+                              Executor serverThread, FundingCache fundingCache, RateLimiter rateLimiter) {
+        // Spammed calls get the current snapshot as-is: no loading message, no future, no info log
+        if (!rateLimiter.tryAcquire(playerId)) {
+            CraftFundsMetrics.FUND_THROTTLED.increment();
+            FundingReport cached = fundingCache.getSnapshot();
+            if (cached != null) {
+                recipients.send(player, cached);
+            } else {
+                recipients.sendMessage(player, STILL_LOADING_MESSAGE);
+            }
+            CraftFunds.LOGGER.debug("Player {} is throttled on /fund, resent cached funding totals", playerName);
+            return;
+        }
+        
+        // Log the command execution
+        CraftFunds.LOGGER.info("Player {} executed /fund command, serving cached funding totals", playerName);
+        
+        // Show loading message to player
+        recipients.sendMessage(player, LOADING_MESSAGE);
+        
+        // Serve the cached funding snapshot
+        CompletableFuture<FundingReport> futureResult = fundingCache.getReport();
+        
+        // Player messages must be sent from the server thread, not the database executor
+        futureResult.thenAcceptAsync(report -> {
+            recipients.send(player, report);
+            
+            CraftFunds.LOGGER.info("Fund command completed successfully for player {}", playerName);
+        }, serverThread).exceptionallyAsync(throwable -> {
+            // Handle any errors that occurred during database query
+            CraftFunds.LOGGER.error("Error retrieving funding data for player {}", playerName, throwable);
+            recipients.sendMessage(player, FAILURE_MESSAGE);
+            return null;
+        }, serverThread);
+    }
+
+    /**
+     * Executes /fund history [page], showing one page of the donation history, newest first.
+     * 
+     * @param context The command execution context
+     * @param page The page to show, starting at 1
+     * @return Command execution result (1 for success, 0 for failure)
+     */
+    private static int executeHistory(CommandContext<ServerCommandSource> context, int page) {
+        ServerCommandSource source = context.getSource();
+        
+        try {
+            ServerPlayerEntity player = source.getPlayerOrThrow();
+            MinecraftServer server = source.getServer();
+            
+            CraftFunds.LOGGER.info("Player {} executed /fund history {}", player.getName().getString(), page);
+            
+            // Each page is one keyset query on the database executor, whatever its number
+            CompletableFuture<DonationHistory.Page> futurePage = CraftFunds.getDonationHistory().getPage(player.getUuid(), page);
+            
+            futurePage.thenAcceptAsync(result -> {
+                List<Text> lines = FundMessageRenderer.renderHistoryPage(result);
+                for (Text line : lines) {
+                    player.sendMessage(line, false);
+                }
+            }, server::execute).exceptionallyAsync(throwable -> {
+                CraftFunds.LOGGER.error("Error retrieving donation history for player {}", 
+                    player.getName().getString(), throwable);
+                player.sendMessage(Text.literal("§cFailed to retrieve donation history. Please try again later."), false);
+                return null;
+            }, server::execute);
+            
+            return 1;
+            
+        } catch (Exception e) {
+            CraftFunds.LOGGER.error("Error executing /fund history command", e);
+            source.sendMessage(Text.literal("§cAn error occurred while executing the command."));
+            return 0;
+        }
+    }
+
+    /**
+     * Executes /fund top [n], showing the top donors of all time and of the current month.
+     * Served entirely from the in-memory leaderboard; no database access.
+     * 
+     * @param context The command execution context
+     * @param count How many donors to show in each ranking
+     * @return Command execution result (1 for success, 0 for failure)
+     */
+    private static int executeTop(CommandContext<ServerCommandSource> context, int count) {
+        ServerCommandSource source = context.getSource();
+        
+        try {
+            ServerPlayerEntity player = source.getPlayerOrThrow();
+            CraftFunds.LOGGER.info("Player {} executed /fund top {}", player.getName().getString(), count);
+            
+            DonorStandings standings = CraftFunds.getDatabaseService().getDonorStandings();
+            if (standings == null) {
+                player.sendMessage(STILL_LOADING_MESSAGE, false);
+                return 1;
+            }
+            
+            for (Text line : FundMessageRenderer.renderLeaderboard(standings, count)) {
+                player.sendMessage(line, false);
+            }
+            return 1;
+            
+        } catch (Exception e) {
+            CraftFunds.LOGGER.error("Error executing /fund top command", e);
+            source.sendMessage(Text.literal("§cAn error occurred while executing the command."));
+            return 0;
+        }
+    }
+
+    /**
+     * Executes /fund month [yyyy-mm], showing the donations of one month against the goal.
+     * Served from the in-memory monthly rollup; no database access.
+     * 
+     * @param context The command execution context
+     * @param monthArgument The month as yyyy-mm, or null for the current month
+     * @return Command execution result (1 for success, 0 for failure)
+     */
+    private static int executeMonth(CommandContext<ServerCommandSource> context, String monthArgument) {
+        ServerCommandSource source = context.getSource();
+        
+        try {
+            ServerPlayerEntity player = source.getPlayerOrThrow();
+            
+            YearMonth month;
+            try {
+                month = monthArgument == null ? YearMonth.now() : YearMonth.parse(monthArgument);
+            } catch (DateTimeParseException e) {
+                player.sendMessage(Text.literal("§cInvalid month '" + monthArgument + "', use yyyy-mm (e.g. 2025-01)."), false);
+                return 0;
+            }
+            CraftFunds.LOGGER.info("Player {} executed /fund month {}", player.getName().getString(), month);
+            
+            NavigableMap<YearMonth, MonthlyRollup.MonthTotal> months = CraftFunds.getDatabaseService().getMonthTotals();
+            if (months == null) {
+                player.sendMessage(STILL_LOADING_MESSAGE, false);
+                return 1;
+            }
+            
+            long goal = ConfigManager.getInstance().getConfig().fundingGoalCents();
+            for (Text line : FundMessageRenderer.renderMonth(month, months.get(month), goal)) {
+                player.sendMessage(line, false);
+            }
+            return 1;
+            
+        } catch (Exception e) {
+            CraftFunds.LOGGER.error("Error executing /fund month command", e);
+            source.sendMessage(Text.literal("§cAn error occurred while executing the command."));
+            return 0;
+        }
+    }
 }
\ No newline at end of file
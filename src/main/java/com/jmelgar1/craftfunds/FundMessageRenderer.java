@@ -0,0 +1,247 @@
+package com.jmelgar1.craftfunds;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.HoverEvent;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+/**
+ * Renders a {@link FundingReport} into the chat lines shown by /fund and on join.
+ *
+ * Rendering happens once per snapshot; the resulting lines are immutable and
+ * shared, so sending them to a player involves no string handling at all.
+ */
+public final class FundMessageRenderer {
+    private static final DateTimeFormatter DONATION_DATE_FORMAT = DateTimeFormatter.ofPattern("MM-dd");
+    private static final DateTimeFormatter HISTORY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final Text HEADER = Text.literal("=== Server Fund ===").formatted(Formatting.DARK_GREEN);
+    private static final RowPalette ODD_ROW = new RowPalette(0x667369, 0x40b85c, 0xbfb354);
+    private static final RowPalette EVEN_ROW = new RowPalette(0x565e58, 0x3a944f, 0x9c934b);
+
+    /**
+     * Colors of one row in a donation listing; rows alternate between two palettes
+     */
+    private record RowPalette(int nameColor, int amountColor, int dateColor) {}
+
+    private FundMessageRenderer() {
+    }
+
+    /**
+     * Sends the report's pre-rendered lines to a player. Must be called on the server thread.
+     *
+     * @param player The recipient
+     * @param report The funding report to show
+     */
+    public static void send(ServerPlayerEntity player, FundingReport report) {
+        long start = System.nanoTime();
+        for (Text line : report.getMessageLines()) {
+            player.sendMessage(line, false);
+        }
+        CraftFundsMetrics.MESSAGE_DELIVERY.recordSince(start);
+    }
+
+    /**
+     * Builds the chat lines for a report
+     *
+     * @param report The report to render
+     * @return The immutable list of lines to send
+     */
+    static List<Text> render(FundingReport report) {
+        long start = System.nanoTime();
+        List<Text> lines = new ArrayList<>(4);
+        lines.add(HEADER);
+
+        if (report.isError()) {
+            lines.add(Text.literal(report.getErrorMessage()));
+        } else if (report.donationCount == 0) {
+            lines.add(Text.literal("§c No donations found."));
+        } else {
+            // Color the amount by progress toward the goal, with a hoverable donation count
+            Formatting amountColor = report.netAmountCents < report.goalCents ? Formatting.RED : Formatting.GOLD;
+            String donationText = report.excessDonationCount == 1 ? "donation" : "donations";
+            Text donationDetails = renderDonationDetails(report.displayedDonations);
+
+            lines.add(Text.literal("$" + Money.format(report.netAmountCents) + " / $" + Money.format(report.goalCents) + " ")
+                .formatted(amountColor)
+                .append(Text.literal("(" + report.excessDonationCount + " " + donationText + ")")
+                    .styled(style -> style
+                        .withColor(Formatting.GRAY)
+                        .withHoverEvent(new HoverEvent.ShowText(donationDetails)))));
+        }
+
+        // Months covered or funding goal message
+        if (report.netAmountCents < report.goalCents) {
+            lines.add(Text.literal("§cServer is below the funding goal, use /donate"));
+        } else {
+            int monthsCovered = (int) (report.netAmountCents / report.goalCents);
+            if (monthsCovered > 0) {
+                String monthText = monthsCovered == 1 ? "month" : "months";
+                lines.add(Text.literal("§7Covers " + monthsCovered + " " + monthText + " of server costs"));
+                lines.add(Text.literal("§7Use '/donate' to fund the server"));
+            }
+        }
+
+        List<Text> rendered = List.copyOf(lines);
+        CraftFundsMetrics.REPORT_RENDER.recordSince(start);
+        return rendered;
+    }
+
+    /**
+     * Builds the hover text listing the oldest excess donations with alternating row colors
+     */
+    private static Text renderDonationDetails(List<DonationLedger.ExcessDonation> donations) {
+        if (donations.isEmpty()) {
+            return Text.literal("All donations have been consumed by spending.\n");
+        }
+
+        MutableText detailsText = Text.literal("Donations:\n");
+        int count = 1;
+        for (DonationLedger.ExcessDonation donation : donations) {
+            RowPalette palette = rowPalette(count);
+
+            detailsText.append(Text.literal(count + ". "))
+                      .append(Text.literal(donation.name()).styled(style -> style.withColor(palette.nameColor())))
+                      .append(Text.literal(": "))
+                      .append(Text.literal("$" + Money.format(donation.amountCents())).styled(style -> style.withColor(palette.amountColor())))
+                      .append(Text.literal(" ("))
+                      .append(Text.literal(donation.date().format(DONATION_DATE_FORMAT)).styled(style -> style.withColor(palette.dateColor())))
+                      .append(Text.literal(")\n"));
+            count++;
+        }
+        return detailsText;
+    }
+
+    /**
+     * Builds the chat lines for a page of /fund history
+     *
+     * @param page The page to render
+     * @return The lines to send
+     */
+    static List<Text> renderHistoryPage(DonationHistory.Page page) {
+        List<Text> lines = new ArrayList<>(page.donations().size() + 2);
+        lines.add(Text.literal("=== Donation History (page " + page.number() + ") ===").formatted(Formatting.DARK_GREEN));
+
+        if (page.donations().isEmpty()) {
+            lines.add(Text.literal(page.number() == 1 ? "§c No donations found." : "§cNo donations on page " + page.number() + "."));
+            return lines;
+        }
+
+        int position = (page.number() - 1) * DonationHistory.PAGE_SIZE + 1;
+        for (DonationLedger.Donation donation : page.donations()) {
+            RowPalette palette = rowPalette(position);
+
+            lines.add(Text.literal(position + ". ")
+                .append(Text.literal(donation.name()).styled(style -> style.withColor(palette.nameColor())))
+                .append(Text.literal(": "))
+                .append(Text.literal(formatMoney(donation.amountCents(), donation.currency())).styled(style -> style.withColor(palette.amountColor())))
+                .append(Text.literal(" ("))
+                .append(Text.literal(donation.date().format(HISTORY_DATE_FORMAT)).styled(style -> style.withColor(palette.dateColor())))
+                .append(Text.literal(")")));
+            position++;
+        }
+
+        if (page.hasNext()) {
+            lines.add(Text.literal("§7Use '/fund history " + (page.number() + 1) + "' for older donations"));
+        }
+        return lines;
+    }
+
+    /**
+     * Renders one line per donor, in rank order. Called once per {@link DonorStandings} snapshot.
+     *
+     * @param donors The ranked donors
+     * @return The immutable list of lines
+     */
+    static List<Text> renderDonors(List<DonorLeaderboard.Donor> donors) {
+        List<Text> lines = new ArrayList<>(donors.size());
+        int rank = 1;
+        for (DonorLeaderboard.Donor donor : donors) {
+            RowPalette palette = rowPalette(rank);
+
+            lines.add(Text.literal(rank + ". ")
+                .append(Text.literal(donor.name()).styled(style -> style.withColor(palette.nameColor())))
+                .append(Text.literal(": "))
+                .append(Text.literal("$" + Money.format(donor.totalCents())).styled(style -> style.withColor(palette.amountColor()))));
+            rank++;
+        }
+        return List.copyOf(lines);
+    }
+
+    /**
+     * Builds the /fund top message from the pre-rendered donor lines
+     *
+     * @param standings The current top donors
+     * @param count How many donors to show in each ranking
+     * @return The lines to send
+     */
+    static List<Text> renderLeaderboard(DonorStandings standings, int count) {
+        List<Text> lines = new ArrayList<>(2 * count + 3);
+        lines.add(Text.literal("=== Top Donors ===").formatted(Formatting.DARK_GREEN));
+
+        lines.add(Text.literal("All time:").formatted(Formatting.GOLD));
+        List<Text> lifetime = standings.getLifetimeLines(count);
+        lines.addAll(lifetime.isEmpty() ? List.of(Text.literal("§7 No donations yet.")) : lifetime);
+
+        String monthName = standings.month.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        lines.add(Text.literal(monthName + " " + standings.month.getYear() + ":").formatted(Formatting.GOLD));
+        List<Text> monthly = standings.getMonthlyLines(count);
+        lines.addAll(monthly.isEmpty() ? List.of(Text.literal("§7 No donations this month yet.")) : monthly);
+        return lines;
+    }
+
+    /**
+     * Builds the /fund month message for one month of the rollup
+     *
+     * @param month The month shown
+     * @param total The month's donations, or null if there were none
+     * @param goalCents The monthly funding goal
+     * @return The lines to send
+     */
+    static List<Text> renderMonth(YearMonth month, MonthlyRollup.MonthTotal total, long goalCents) {
+        String monthName = month.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + month.getYear();
+        List<Text> lines = new ArrayList<>(3);
+        lines.add(Text.literal("=== Server Fund: " + monthName + " ===").formatted(Formatting.DARK_GREEN));
+
+        if (total == null) {
+            lines.add(Text.literal("§c No donations in " + monthName + "."));
+            return lines;
+        }
+
+        Formatting amountColor = total.totalCents() < goalCents ? Formatting.RED : Formatting.GOLD;
+        String donationText = total.donationCount() == 1 ? "donation" : "donations";
+        lines.add(Text.literal("$" + Money.format(total.totalCents()) + " / $" + Money.format(goalCents) + " ")
+            .formatted(amountColor)
+            .append(Text.literal("(" + total.donationCount() + " " + donationText + ")").formatted(Formatting.GRAY)));
+
+        if (total.totalCents() < goalCents) {
+            lines.add(Text.literal("§c$" + Money.format(goalCents - total.totalCents()) + " short of the monthly goal"));
+        } else {
+            lines.add(Text.literal("§7Met the monthly goal"));
+        }
+        return lines;
+    }
+
+    /**
+     * @param position The 1-based position of the row in its listing
+     * @return the colors for that row
+     */
+    private static RowPalette rowPalette(int position) {
+        return position % 2 == 0 ? EVEN_ROW : ODD_ROW;
+    }
+
+    /**
+     * Formats an amount in the given currency, using "$" for the goal currency
+     */
+    private static String formatMoney(long cents, String currency) {
+        return ExchangeRates.GOAL_CURRENCY.equals(currency)
+            ? "$" + Money.format(cents)
+            : Money.format(cents) + " " + currency;
+    }
+}
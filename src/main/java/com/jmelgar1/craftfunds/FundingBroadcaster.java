@@ -0,0 +1,170 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import net.minecraft.entity.boss.BossBar;
+import net.minecraft.entity.boss.ServerBossBar;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+/**
+ * Shows fund progress outside of /fund: a periodic chat broadcast and an
+ * optional boss bar tracking the net amount against the funding goal.
+ *
+ * Both are driven from the end of every server tick and only read the cached
+ * snapshot, so they never touch the database. The boss bar is updated only
+ * when a new snapshot changes its progress, title or color, and vanilla only
+ * sends an update packet for a value that actually changed. Broadcasts go
+ * through the {@link JoinBatcher} outbox and share its per-tick send limit,
+ * and players are added to the boss bar at the same rate, so neither spikes
+ * tick time on a full server.
+ *
+ * All state except the configuration is owned by the server thread.
+ */
+public class FundingBroadcaster {
+    private static final Text DEFAULT_TITLE = Text.literal("Server Fund");
+
+    private final FundingCache fundingCache;
+    private final JoinBatcher<ServerPlayerEntity> joinBatcher;
+    private volatile long broadcastIntervalMillis;
+    private volatile boolean bossBarEnabled;
+    private volatile int maxAddsPerTick;
+
+    private final ServerBossBar bossBar = new ServerBossBar(DEFAULT_TITLE, BossBar.Color.RED, BossBar.Style.PROGRESS);
+    private final ArrayDeque<ServerPlayerEntity> pendingViewers = new ArrayDeque<>();
+    private boolean bossBarShown = false;
+    private FundingReport shownReport;
+    private String shownTitle;
+    private long scheduledIntervalMillis = 0;
+    private long nextBroadcastMillis;
+
+    public FundingBroadcaster(FundingCache fundingCache, JoinBatcher<ServerPlayerEntity> joinBatcher, CraftFundsConfig config) {
+        this.fundingCache = fundingCache;
+        this.joinBatcher = joinBatcher;
+        this.broadcastIntervalMillis = config.broadcastIntervalMinutes() * 60_000L;
+        this.bossBarEnabled = config.bossBarEnabled();
+        this.maxAddsPerTick = Math.max(1, config.joinMaxSendsPerTick());
+    }
+
+    /**
+     * Applies new broadcast and boss bar settings, effective from the next tick. Safe to call from any thread.
+     *
+     * @param config The configuration to apply
+     */
+    public void reconfigure(CraftFundsConfig config) {
+        this.broadcastIntervalMillis = config.broadcastIntervalMinutes() * 60_000L;
+        this.bossBarEnabled = config.bossBarEnabled();
+        this.maxAddsPerTick = Math.max(1, config.joinMaxSendsPerTick());
+    }
+
+    /**
+     * Sends a due broadcast and brings the boss bar up to date with the
+     * cached snapshot. Called at the end of every server tick.
+     *
+     * @param server The server instance
+     */
+    public void tick(MinecraftServer server) {
+        FundingReport report = fundingCache.getSnapshot();
+        tickBossBar(server, report);
+
+        long interval = broadcastIntervalMillis;
+        long now = System.currentTimeMillis();
+        if (interval != scheduledIntervalMillis) {
+            // Enabled or changed by a reload: the first broadcast is one full interval away
+            scheduledIntervalMillis = interval;
+            nextBroadcastMillis = now + interval;
+        }
+        if (interval > 0 && now >= nextBroadcastMillis && report != null && !report.isError()) {
+            nextBroadcastMillis = now + interval;
+            List<ServerPlayerEntity> players = List.copyOf(server.getPlayerManager().getPlayerList());
+            if (!players.isEmpty()) {
+                joinBatcher.deliverAll(players, report);
+                CraftFunds.LOGGER.info("Funding broadcast queued for {} player(s)", players.size());
+            }
+        }
+    }
+
+    private void tickBossBar(MinecraftServer server, FundingReport report) {
+        boolean enabled = bossBarEnabled;
+        if (enabled != bossBarShown) {
+            bossBarShown = enabled;
+            if (enabled) {
+                pendingViewers.addAll(server.getPlayerManager().getPlayerList());
+            } else {
+                pendingViewers.clear();
+                bossBar.clearPlayers();
+                shownReport = null;
+            }
+        }
+        if (!enabled) {
+            return;
+        }
+
+        // A new snapshot instance is published only when the funding figures changed
+        if (report != null && report != shownReport && !report.isError()) {
+            update(report);
+            shownReport = report;
+        }
+        if (shownReport == null) {
+            // Nothing to show until the first snapshot arrives
+            return;
+        }
+
+        int limit = maxAddsPerTick;
+        int added = 0;
+        ServerPlayerEntity player;
+        while (added < limit && (player = pendingViewers.pollFirst()) != null) {
+            if (player.isDisconnected()) {
+                continue;
+            }
+            bossBar.addPlayer(player);
+            added++;
+        }
+    }
+
+    private void update(FundingReport report) {
+        float percent = (float) Math.max(0.0, Math.min(1.0, report.netAmountCents / (double) report.goalCents));
+        if (percent != bossBar.getPercent()) {
+            bossBar.setPercent(percent);
+        }
+
+        String title = "Server Fund: $" + Money.format(report.netAmountCents)
+            + " / $" + Money.format(report.goalCents);
+        if (!title.equals(shownTitle)) {
+            bossBar.setName(Text.literal(title));
+            shownTitle = title;
+        }
+
+        bossBar.setColor(report.netAmountCents < report.goalCents ? BossBar.Color.RED : BossBar.Color.GREEN);
+    }
+
+    /**
+     * Queues a joining player to be shown the boss bar
+     *
+     * @param player The player who joined
+     */
+    public void onPlayerJoin(ServerPlayerEntity player) {
+        if (bossBarShown) {
+            pendingViewers.addLast(player);
+        }
+    }
+
+    /**
+     * Forgets a player who left, so the boss bar holds no reference to them
+     *
+     * @param player The player who disconnected
+     */
+    public void onPlayerLeave(ServerPlayerEntity player) {
+        pendingViewers.remove(player);
+        bossBar.removePlayer(player);
+    }
+
+    /**
+     * Hides the boss bar from everyone. Called when the server stops.
+     */
+    public void clear() {
+        pendingViewers.clear();
+        bossBar.clearPlayers();
+    }
+}
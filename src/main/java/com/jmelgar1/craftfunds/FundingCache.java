@@ -0,0 +1,182 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Server-wide cache of the latest {@link FundingReport}.
+ *
+ * A background task refreshes the snapshot on a fixed interval, so /fund and
+ * the join hook are served from memory instead of querying the database for
+ * every player. While a refresh is running, callers keep receiving the
+ * previous snapshot.
+ *
+ * Every new good snapshot is also persisted through {@link SnapshotStore}, and
+ * the persisted one is loaded at startup so players are served immediately
+ * after a restart or while the database is unreachable.
+ */
+public class FundingCache implements AutoCloseable {
+    private final DatabaseService databaseService;
+    private final SnapshotStore snapshotStore;
+    private long refreshIntervalSeconds;
+    private ScheduledFuture<?> refreshTask;
+    private final AtomicReference<FundingReport> snapshot = new AtomicReference<>();
+    private final CompletableFuture<FundingReport> firstLoad = new CompletableFuture<>();
+    private final ScheduledExecutorService scheduler;
+
+    public FundingCache(DatabaseService databaseService, SnapshotStore snapshotStore, long refreshIntervalSeconds) {
+        this.databaseService = databaseService;
+        this.snapshotStore = snapshotStore;
+        this.refreshIntervalSeconds = Math.max(1, refreshIntervalSeconds);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CraftFunds-FundingRefresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Seeds the cache with the snapshot persisted by a previous run, if any.
+     * Called once at startup, before the first refresh.
+     */
+    public void loadPersistedSnapshot() {
+        snapshotStore.load().ifPresent(report -> {
+            snapshot.compareAndSet(null, report);
+            firstLoad.complete(snapshot.get());
+        });
+    }
+
+    /**
+     * Starts the periodic background refresh, beginning immediately. Does
+     * nothing if the cache was closed first, as when the server stops while
+     * the database is still warming up.
+     */
+    public synchronized void start() {
+        if (scheduler.isShutdown() || refreshTask != null) {
+            return;
+        }
+        scheduleRefresh(0);
+    }
+
+    /**
+     * Changes the refresh interval. If the refresh task is already running it
+     * is rescheduled, with the next refresh one new interval from now.
+     *
+     * @param refreshIntervalSeconds The new interval between refreshes
+     */
+    public synchronized void setRefreshIntervalSeconds(long refreshIntervalSeconds) {
+        long interval = Math.max(1, refreshIntervalSeconds);
+        if (interval == this.refreshIntervalSeconds) {
+            return;
+        }
+        this.refreshIntervalSeconds = interval;
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            scheduleRefresh(interval);
+        }
+    }
+
+    private void scheduleRefresh(long initialDelaySeconds) {
+        refreshTask = scheduler.scheduleWithFixedDelay(this::refreshAndWait, initialDelaySeconds,
+            refreshIntervalSeconds, TimeUnit.SECONDS);
+        CraftFunds.LOGGER.info("Funding snapshot refresh scheduled every {} seconds", refreshIntervalSeconds);
+    }
+
+    /**
+     * Returns the current funding snapshot. Completes immediately once a
+     * snapshot has been loaded; before that, completes when the first
+     * refresh finishes.
+     *
+     * @return The cached funding report
+     */
+    public CompletableFuture<FundingReport> getReport() {
+        FundingReport current = snapshot.get();
+        if (current != null) {
+            CraftFundsMetrics.CACHE_HITS.increment();
+            return CompletableFuture.completedFuture(current);
+        }
+        CraftFundsMetrics.CACHE_MISSES.increment();
+        return firstLoad;
+    }
+
+    /**
+     * @return the current snapshot without waiting, or null before the first one is loaded
+     */
+    public FundingReport getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Queries the database for a new snapshot and publishes it. A failed
+     * refresh never replaces a good snapshot, so players keep seeing the last
+     * known figures while the database is unavailable.
+     *
+     * @return The snapshot that is current once the refresh completes
+     */
+    public CompletableFuture<FundingReport> refresh() {
+        return databaseService.getMonthlyFundingTotal().exceptionally(FundingCache::failedReport).thenApply(this::publish);
+    }
+
+    /**
+     * Like {@link #refresh()}, but never reuses a refresh that started before
+     * this call. Used after donations are written so they show up straight away.
+     *
+     * @return The snapshot that is current once the refresh completes
+     */
+    public CompletableFuture<FundingReport> refreshAfterWrite() {
+        return databaseService.getFreshFundingTotal().exceptionally(FundingCache::failedReport).thenApply(this::publish);
+    }
+
+    /**
+     * Turns a refresh that failed outright, such as one rejected by a saturated
+     * executor, into an error report. Publishing it like any other failed
+     * refresh completes the first-load future, so callers waiting on it are
+     * not left hanging when there is no persisted snapshot.
+     */
+    private static FundingReport failedReport(Throwable throwable) {
+        CraftFunds.LOGGER.error("Error refreshing funding snapshot", throwable);
+        return FundingReport.error("§cFailed to retrieve funding information. Please try again later.");
+    }
+
+    private FundingReport publish(FundingReport report) {
+        FundingReport previous = snapshot.get();
+        FundingReport published = snapshot.updateAndGet(current ->
+            report.isError() && current != null && !current.isError() ? current : report);
+
+        // Persist only new good snapshots; an unchanged ledger returns the same instance
+        if (published == report && report != previous && !report.isError()) {
+            snapshotStore.save(report);
+        }
+
+        if (report.isError() && published != report) {
+            CraftFunds.LOGGER.warn("Funding refresh failed, keeping snapshot from {} ms ago",
+                System.currentTimeMillis() - published.generatedAtMillis);
+        }
+
+        firstLoad.complete(published);
+        return published;
+    }
+
+    private void refreshAndWait() {
+        try {
+            refresh().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            CraftFunds.LOGGER.error("Error refreshing funding snapshot", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the background refresh task
+     */
+    @Override
+    public synchronized void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,98 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.List;
+import net.minecraft.text.Text;
+
+/**
+ * Immutable snapshot of the server's funding state. A single instance is shared
+ * by every player that views the fund, so nothing here may be mutated after
+ * construction.
+ *
+ * The chat lines are rendered once, when the snapshot is created, and the same
+ * {@link Text} instances are sent to every recipient.
+ */
+public final class FundingReport {
+    public final long totalDonationsCents;
+    public final long totalSpendingCents;
+    public final long netAmountCents;
+    public final int donationCount;
+    public final int excessDonationCount;
+    public final long goalCents;
+    public final List<DonationLedger.ExcessDonation> displayedDonations;
+    public final long generatedAtMillis;
+    private final String errorMessage;
+    private final List<Text> messageLines;
+
+    /**
+     * @param totalDonationsCents Sum of all donations, in cents
+     * @param totalSpendingCents Total spent on server costs, in cents
+     * @param donationCount Number of donations
+     * @param excessDonationCount Number of donations not yet consumed by spending
+     * @param displayedDonations The oldest excess donations, shown in the hover
+     * @param goalCents The monthly funding goal the net amount is measured against, in cents
+     */
+    public FundingReport(long totalDonationsCents, long totalSpendingCents, int donationCount,
+                         int excessDonationCount, List<DonationLedger.ExcessDonation> displayedDonations,
+                         long goalCents) {
+        this(totalDonationsCents, totalSpendingCents, donationCount, excessDonationCount, displayedDonations, goalCents,
+            System.currentTimeMillis(), null);
+    }
+
+    private FundingReport(long totalDonationsCents, long totalSpendingCents, int donationCount,
+                          int excessDonationCount, List<DonationLedger.ExcessDonation> displayedDonations,
+                          long goalCents, long generatedAtMillis, String errorMessage) {
+        this.totalDonationsCents = totalDonationsCents;
+        this.totalSpendingCents = totalSpendingCents;
+        this.netAmountCents = totalDonationsCents - totalSpendingCents;
+        this.donationCount = donationCount;
+        this.excessDonationCount = excessDonationCount;
+        this.goalCents = goalCents;
+        this.displayedDonations = List.copyOf(displayedDonations);
+        this.generatedAtMillis = generatedAtMillis;
+        this.errorMessage = errorMessage;
+        this.messageLines = FundMessageRenderer.render(this);
+    }
+
+    /**
+     * Recreates a report persisted by {@link SnapshotStore}, keeping its original timestamp.
+     * The goal is not persisted; the configured one is used.
+     */
+    static FundingReport restored(long totalDonationsCents, long totalSpendingCents, int donationCount,
+                                  int excessDonationCount, List<DonationLedger.ExcessDonation> displayedDonations,
+                                  long generatedAtMillis) {
+        return new FundingReport(totalDonationsCents, totalSpendingCents, donationCount, excessDonationCount,
+            displayedDonations, ConfigManager.getInstance().getConfig().fundingGoalCents(), generatedAtMillis, null);
+    }
+
+    /**
+     * Creates a report describing a failure to read the funding data
+     *
+     * @param message The message shown to players in place of the summary
+     * @return A report flagged as an error
+     */
+    public static FundingReport error(String message) {
+        return new FundingReport(0, 0, 0, 0, List.of(), ConfigManager.getInstance().getConfig().fundingGoalCents(),
+            System.currentTimeMillis(), message);
+    }
+
+    /**
+     * @return true if this report describes a failure rather than real funding data
+     */
+    public boolean isError() {
+        return errorMessage != null;
+    }
+
+    /**
+     * @return the error message shown in place of the summary, or null for a successful report
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * @return the pre-rendered chat lines, shared by every recipient
+     */
+    public List<Text> getMessageLines() {
+        return messageLines;
+    }
+}
@@ -0,0 +1,330 @@
+package com.jmelgar1.craftfunds;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for repositories backed by a JDBC database. The queries are plain
+ * SQL shared by every backend; subclasses only decide how connections are
+ * opened and whether the schema needs to be created.
+ */
+public abstract class JdbcDonationRepository implements DonationRepository {
+    // Rows missing a field cannot be counted or shown; skipping them here keeps the ledger and every history page consistent
+    private static final String VALID_DONATION =
+        "name IS NOT NULL AND amount IS NOT NULL AND currency IS NOT NULL AND date IS NOT NULL";
+    private static final String ALL_DONATIONS_QUERY =
+        "SELECT id, name, amount, currency, date FROM donations WHERE " + VALID_DONATION + " ORDER BY date ASC, id ASC";
+    private static final String DONATIONS_AFTER_QUERY =
+        "SELECT id, name, amount, currency, date FROM donations WHERE id > ? AND " + VALID_DONATION + " ORDER BY id ASC";
+    private static final String HISTORY_FIRST_PAGE_QUERY =
+        "SELECT id, name, amount, currency, date FROM donations WHERE " + VALID_DONATION
+            + " ORDER BY date DESC, id DESC LIMIT ?";
+    private static final String HISTORY_PAGE_QUERY =
+        "SELECT id, name, amount, currency, date FROM donations WHERE (date < ? OR (date = ? AND id < ?)) AND "
+            + VALID_DONATION + " ORDER BY date DESC, id DESC LIMIT ?";
+    private static final String HISTORY_FIRST_KEYS_QUERY =
+        "SELECT id, date FROM donations WHERE " + VALID_DONATION + " ORDER BY date DESC, id DESC LIMIT ?";
+    private static final String HISTORY_KEYS_QUERY =
+        "SELECT id, date FROM donations WHERE (date < ? OR (date = ? AND id < ?)) AND " + VALID_DONATION
+            + " ORDER BY date DESC, id DESC LIMIT ?";
+    private static final String INSERT_DONATION =
+        "INSERT INTO donations (name, amount, currency, date) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO donations (name, amount, currency, date, transaction_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String EXISTING_TRANSACTIONS_QUERY =
+        "SELECT transaction_id FROM donations WHERE transaction_id IN (";
+    private static final String SPENDING_QUERY =
+        "SELECT total_spent FROM total_spending LIMIT 1";
+    private static final String EXCHANGE_RATES_QUERY =
+        "SELECT currency, rate FROM exchange_rates";
+
+    protected final ConnectionPool connectionPool;
+    private final Set<String> invalidRatesLogged = ConcurrentHashMap.newKeySet();
+
+    protected JdbcDonationRepository(String url, String username, String password, CraftFundsConfig config) {
+        this.connectionPool = new ConnectionPool(
+            url,
+            username,
+            password,
+            config.poolMaxSize(),
+            config.poolMinIdle(),
+            config.poolIdleTimeoutSeconds() * 1000L,
+            config.poolMaxLifetimeSeconds() * 1000L,
+            config.databaseTimeoutSeconds() * 1000L,
+            config.poolValidationTimeoutSeconds()
+        );
+    }
+
+    @Override
+    public List<DonationLedger.Donation> findAllDonations() throws SQLException {
+        List<DonationLedger.Donation> donations = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(ALL_DONATIONS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                donations.add(readDonation(rs));
+            }
+        }
+        return donations;
+    }
+
+    @Override
+    public List<DonationLedger.Donation> findDonationsAfter(long lastSeenId) throws SQLException {
+        List<DonationLedger.Donation> donations = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DONATIONS_AFTER_QUERY)) {
+            stmt.setLong(1, lastSeenId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    donations.add(readDonation(rs));
+                }
+            }
+        }
+        return donations;
+    }
+
+    @Override
+    public List<DonationLedger.Donation> findDonationsBefore(DonationCursor before, int limit) throws SQLException {
+        List<DonationLedger.Donation> donations = new ArrayList<>(limit);
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = prepareHistoryQuery(connection,
+                 before == null ? HISTORY_FIRST_PAGE_QUERY : HISTORY_PAGE_QUERY, before, limit);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                donations.add(readDonation(rs));
+            }
+        }
+        return donations;
+    }
+
+    @Override
+    public List<DonationCursor> findCursorsBefore(DonationCursor before, int limit) throws SQLException {
+        List<DonationCursor> cursors = new ArrayList<>(limit);
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = prepareHistoryQuery(connection,
+                 before == null ? HISTORY_FIRST_KEYS_QUERY : HISTORY_KEYS_QUERY, before, limit);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                cursors.add(new DonationCursor(rs.getDate("date").toLocalDate(), rs.getLong("id")));
+            }
+        }
+        return cursors;
+    }
+
+    private static PreparedStatement prepareHistoryQuery(Connection connection, String sql, DonationCursor before,
+                                                         int limit) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        try {
+            int index = 1;
+            if (before != null) {
+                Date date = Date.valueOf(before.date());
+                stmt.setDate(index++, date);
+                stmt.setDate(index++, date);
+                stmt.setLong(index++, before.id());
+            }
+            stmt.setInt(index, limit);
+            return stmt;
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void insertDonations(List<NewDonation> donations) throws SQLException {
+        if (donations.isEmpty()) {
+            return;
+        }
+        try (Connection connection = getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_DONATION)) {
+                for (NewDonation donation : donations) {
+                    bindDonation(stmt, donation);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @Override
+    public int insertTransactions(Map<String, NewDonation> donations) throws SQLException {
+        if (donations.isEmpty()) {
+            return 0;
+        }
+        try (Connection connection = getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                // One indexed lookup for the whole batch; the unique index still guards against races
+                Set<String> existing = findExistingTransactions(connection, donations.keySet());
+                int inserted = 0;
+                try (PreparedStatement stmt = connection.prepareStatement(INSERT_TRANSACTION)) {
+                    for (Map.Entry<String, NewDonation> entry : donations.entrySet()) {
+                        if (existing.contains(entry.getKey())) {
+                            continue;
+                        }
+                        bindDonation(stmt, entry.getValue());
+                        stmt.setString(5, entry.getKey());
+                        stmt.addBatch();
+                        inserted++;
+                    }
+                    if (inserted > 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                connection.commit();
+                return inserted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static Set<String> findExistingTransactions(Connection connection, Collection<String> transactionIds)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(EXISTING_TRANSACTIONS_QUERY);
+        for (int i = 0; i < transactionIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (String transactionId : transactionIds) {
+                stmt.setString(index++, transactionId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString("transaction_id"));
+                }
+            }
+        }
+        return existing;
+    }
+
+    private static void bindDonation(PreparedStatement stmt, NewDonation donation) throws SQLException {
+        stmt.setString(1, donation.name());
+        stmt.setBigDecimal(2, Money.toDecimal(donation.amountCents()));
+        stmt.setString(3, donation.currency());
+        stmt.setDate(4, Date.valueOf(donation.date()));
+    }
+
+    @Override
+    public long findTotalSpending() throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SPENDING_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            BigDecimal spent = rs.next() ? rs.getBigDecimal("total_spent") : null;
+            return spent == null ? 0 : Money.toCents(spent);
+        }
+    }
+
+    @Override
+    public Map<String, Double> findExchangeRates() throws SQLException {
+        Map<String, Double> rates = new HashMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(EXCHANGE_RATES_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String currency = rs.getString("currency");
+                double rate = rs.getDouble("rate");
+                boolean rateMissing = rs.wasNull();
+                // Same rules as funding.fx.rates; a NULL rate would otherwise read as 0 and zero out the currency
+                if (rateMissing || !ExchangeRates.isValid(currency, rate)) {
+                    String row = currency + ":" + (rateMissing ? "NULL" : rate);
+                    if (invalidRatesLogged.add(row)) {
+                        CraftFunds.LOGGER.warn("Ignoring invalid exchange rate '{}' in the exchange_rates table", row);
+                    }
+                    continue;
+                }
+                rates.put(ExchangeRates.normalize(currency), rate);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Makes sure the backend's JDBC driver is registered. Called before every
+     * connection is borrowed, so it must be cheap once the driver is loaded.
+     *
+     * @throws SQLException if the driver is not available
+     */
+    protected abstract void loadDriver() throws SQLException;
+
+    @Override
+    public int warmUp() throws SQLException {
+        // The first borrow goes through getConnection so subclasses can prepare the database
+        try (Connection connection = getConnection()) {
+            connection.isValid(1);
+        }
+        return connectionPool.prefill();
+    }
+
+    /**
+     * Borrows a pooled connection, recording how long the acquisition took
+     *
+     * @return A connection that returns itself to the pool when closed
+     * @throws SQLException if no connection could be obtained
+     */
+    protected Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            loadDriver();
+            Connection connection = connectionPool.getConnection();
+            CraftFundsMetrics.CONNECTION_ACQUIRE.recordSince(start);
+            return connection;
+        } catch (SQLException e) {
+            CraftFundsMetrics.CONNECTION_ACQUIRE.recordError();
+            throw e;
+        }
+    }
+
+    private static DonationLedger.Donation readDonation(ResultSet rs) throws SQLException {
+        return new DonationLedger.Donation(
+            rs.getLong("id"),
+            rs.getString("name"),
+            Money.toCents(rs.getBigDecimal("amount")),
+            ExchangeRates.normalize(rs.getString("currency")).intern(),
+            rs.getDate("date").toLocalDate()
+        );
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+        return connectionPool.getActiveCount();
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return connectionPool.getIdleCount();
+    }
+
+    @Override
+    public void close() {
+        connectionPool.close();
+    }
+}
@@ -0,0 +1,130 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import net.minecraft.text.Text;
+
+/**
+ * Batches join-time fund messages.
+ *
+ * Players who join within a short window of each other are served by a single
+ * report fetch. The rendered message is then fanned out to all of them from
+ * the server thread, with a cap on how many players receive it per tick so a
+ * mass reconnect does not spike tick time.
+ *
+ * All state is owned by the server thread: {@link #enqueue} is called from the
+ * join event, {@link #tick} from the end of every server tick, and report
+ * callbacks are marshalled back through the server thread's executor.
+ *
+ * @param <P> The recipient type, see {@link MessageRecipients}
+ */
+public class JoinBatcher<P> {
+    private static final Text FAILURE_MESSAGE = Text.literal("§cFailed to retrieve funding information.");
+
+    private final FundingCache fundingCache;
+    private final MessageRecipients<P> recipients;
+    private volatile long windowMillis;
+    private volatile int maxSendsPerTick;
+
+    private final List<P> pending = new ArrayList<>();
+    private final ArrayDeque<Delivery<P>> outbox = new ArrayDeque<>();
+    private long windowDeadlineMillis;
+
+    private record Delivery<P>(P recipient, FundingReport report) {}
+
+    public JoinBatcher(FundingCache fundingCache, MessageRecipients<P> recipients, long windowMillis, int maxSendsPerTick) {
+        this.fundingCache = fundingCache;
+        this.recipients = recipients;
+        this.windowMillis = windowMillis;
+        this.maxSendsPerTick = Math.max(1, maxSendsPerTick);
+    }
+
+    /**
+     * Queues a joining player to receive the fund message when the current window closes
+     *
+     * @param player The player who joined
+     */
+    public void enqueue(P player) {
+        if (pending.isEmpty()) {
+            windowDeadlineMillis = System.currentTimeMillis() + windowMillis;
+        }
+        pending.add(player);
+    }
+
+    /**
+     * Queues a report for delivery to several players, sharing the per-tick
+     * send limit with join messages. Must be called on the server thread.
+     *
+     * @param players The recipients
+     * @param report The report to send them
+     */
+    public void deliverAll(List<P> players, FundingReport report) {
+        for (P player : players) {
+            outbox.addLast(new Delivery<>(player, report));
+        }
+    }
+
+    /**
+     * Closes the join window once it has elapsed and delivers queued messages,
+     * up to the per-tick limit. Called at the end of every server tick.
+     *
+     * @param serverThread Runs tasks on the server thread; the server itself on a live server
+     */
+    public void tick(Executor serverThread) {
+        if (!pending.isEmpty() && System.currentTimeMillis() >= windowDeadlineMillis) {
+            flushWindow(serverThread);
+        }
+
+        int sent = 0;
+        Delivery<P> delivery;
+        while (sent < maxSendsPerTick && (delivery = outbox.pollFirst()) != null) {
+            if (recipients.isDisconnected(delivery.recipient())) {
+                continue;
+            }
+            recipients.send(delivery.recipient(), delivery.report());
+            sent++;
+        }
+    }
+
+    private void flushWindow(Executor serverThread) {
+        List<P> batch = new ArrayList<>(pending);
+        pending.clear();
+
+        // One report for the whole window, fanned out to every queued player
+        fundingCache.getReport().thenAcceptAsync(report -> {
+            for (P player : batch) {
+                outbox.addLast(new Delivery<>(player, report));
+            }
+            CraftFunds.LOGGER.info("Funding information queued for {} player(s) who joined", batch.size());
+        }, serverThread).exceptionallyAsync(throwable -> {
+            CraftFunds.LOGGER.error("Error retrieving funding data for {} joining player(s)", batch.size(), throwable);
+            for (P player : batch) {
+                if (!recipients.isDisconnected(player)) {
+                    recipients.sendMessage(player, FAILURE_MESSAGE);
+                }
+            }
+            return null;
+        }, serverThread);
+    }
+
+    /**
+     * Applies new batching limits, effective from the next window. Safe to call from any thread.
+     *
+     * @param windowMillis How long to collect joins before fetching the report
+     * @param maxSendsPerTick The most fund messages delivered in one tick
+     */
+    public void reconfigure(long windowMillis, int maxSendsPerTick) {
+        this.windowMillis = windowMillis;
+        this.maxSendsPerTick = Math.max(1, maxSendsPerTick);
+    }
+
+    /**
+     * Drops every queued player and message. Called when the server stops.
+     */
+    public void clear() {
+        pending.clear();
+        outbox.clear();
+    }
+}
@@ -0,0 +1,46 @@
+package com.jmelgar1.craftfunds;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+/**
+ * How fund messages reach a recipient. On a live server the recipients are
+ * players; the join-storm load test substitutes stubs that only record when
+ * their message arrived. Only called on the server thread.
+ *
+ * @param <P> The recipient type
+ */
+public interface MessageRecipients<P> {
+
+    /**
+     * Delivers to online players through {@link FundMessageRenderer}
+     */
+    MessageRecipients<ServerPlayerEntity> PLAYERS = new MessageRecipients<>() {
+        @Override
+        public boolean isDisconnected(ServerPlayerEntity player) {
+            return player.isDisconnected();
+        }
+
+        @Override
+        public void send(ServerPlayerEntity player, FundingReport report) {
+            FundMessageRenderer.send(player, report);
+        }
+
+        @Override
+        public void sendMessage(ServerPlayerEntity player, Text message) {
+            player.sendMessage(message, false);
+        }
+    };
+
+    boolean isDisconnected(P recipient);
+
+    /**
+     * Sends the report's pre-rendered fund message
+     */
+    void send(P recipient, FundingReport report);
+
+    /**
+     * Sends a single status or error line
+     */
+    void sendMessage(P recipient, Text message);
+}
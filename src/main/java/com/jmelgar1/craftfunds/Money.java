@@ -0,0 +1,77 @@
+package com.jmelgar1.craftfunds;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Every amount in CraftFunds is a long number of
+ * cents, so sums and differences are exact; BigDecimal is only used at the
+ * JDBC and input boundaries, and doubles only for exchange rates.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * @param amount An amount in currency units, e.g. 12.34
+     * @return the amount in cents, rounded half up if it has more than two decimals
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @param cents An amount in cents
+     * @return the same amount in currency units with two decimals, for JDBC parameters
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Converts an amount into the goal currency
+     *
+     * @param cents An amount in cents of its own currency
+     * @param rate The rate into the goal currency
+     * @return the converted amount in cents, rounded to the nearest cent; exact for a rate of 1
+     */
+    public static long convert(long cents, double rate) {
+        return rate == 1.0 ? cents : Math.round(cents * rate);
+    }
+
+    /**
+     * Formats an amount, showing whole numbers without decimals
+     *
+     * @param cents The amount in cents
+     * @return formatted string (e.g., "15" for 1500, "15.01" for 1501)
+     */
+    public static String format(long cents) {
+        return append(new StringBuilder(12), cents).toString();
+    }
+
+    /**
+     * Appends an amount formatted as by {@link #format(long)}, without intermediate strings
+     *
+     * @param out Where to append
+     * @param cents The amount in cents
+     * @return out
+     */
+    public static StringBuilder append(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+        }
+        long units = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        out.append(units);
+        if (fraction != 0) {
+            out.append('.');
+            if (fraction < 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,130 @@
+package com.jmelgar1.craftfunds;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Donation totals per month in the goal currency, kept up to date as
+ * donations reach the ledger. Every source of donations (the webhook, imports,
+ * rows written straight to the database) passes through the ledger's delta
+ * query, so the rollup sees them all, and a full reconcile rebuilds it from
+ * scratch.
+ *
+ * Each donation is converted on its own and the rounded cents are summed, the
+ * same rule the excess walk and the leaderboard use, so the net amount always
+ * equals the sum of the excess donations shown on hover. A rate change
+ * therefore rebuilds the rollup from the ledger rows, as it does the
+ * leaderboard; otherwise only new donations are added, and both the all-time
+ * figures and any single month are read from here in O(months).
+ *
+ * Owned by {@link DonationLedger} and only mutated under its lock. Readers
+ * get an immutable snapshot, published after each change.
+ */
+public class MonthlyRollup {
+
+    /**
+     * One month's donations, converted into goal-currency cents
+     */
+    public record MonthTotal(YearMonth month, long totalCents, int donationCount) {}
+
+    /**
+     * Running sum of one month's converted donations
+     */
+    private static final class MonthSum {
+        private long cents;
+        private int count;
+    }
+
+    private final TreeMap<YearMonth, MonthSum> months = new TreeMap<>();
+    private final Set<String> unconvertibleCurrencies = new HashSet<>();
+    private volatile NavigableMap<YearMonth, MonthTotal> published;
+
+    /**
+     * Recomputes every month from the ledger rows
+     *
+     * @param rows The ledger rows, ordered oldest first
+     * @param rates The exchange rates into the goal currency
+     */
+    void rebuild(DonationLedger.Rows rows, ExchangeRates rates) {
+        months.clear();
+
+        // Rows are in date order, so look up a rate or a month only when it changes
+        String currency = null;
+        double rate = Double.NaN;
+        MonthSum sum = null;
+        long monthLastDay = Long.MIN_VALUE;
+        for (int i = 0; i < rows.size(); i++) {
+            if (!rows.currency(i).equals(currency)) {
+                currency = rows.currency(i);
+                rate = rateFor(rates, currency);
+            }
+            if (Double.isNaN(rate)) {
+                continue;
+            }
+            int day = rows.epochDay(i);
+            if (sum == null || day > monthLastDay) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+                sum = months.computeIfAbsent(month, key -> new MonthSum());
+                monthLastDay = month.atEndOfMonth().toEpochDay();
+            }
+            sum.cents += Money.convert(rows.amountCents(i), rate);
+            sum.count++;
+        }
+    }
+
+    /**
+     * Adds newly fetched donations to their months
+     *
+     * @param donations The new donations, in their own currencies
+     * @param rates The exchange rates into the goal currency
+     */
+    void addAll(List<DonationLedger.Donation> donations, ExchangeRates rates) {
+        for (DonationLedger.Donation donation : donations) {
+            double rate = rateFor(rates, donation.currency());
+            if (Double.isNaN(rate)) {
+                continue;
+            }
+            MonthSum sum = months.computeIfAbsent(YearMonth.from(donation.date()), month -> new MonthSum());
+            sum.cents += Money.convert(donation.amountCents(), rate);
+            sum.count++;
+        }
+    }
+
+    private double rateFor(ExchangeRates rates, String currency) {
+        double rate = rates.rateFor(currency);
+        if (Double.isNaN(rate) && unconvertibleCurrencies.add(currency)) {
+            CraftFunds.LOGGER.warn("No exchange rate for {}, ignoring donations in that currency", currency);
+        }
+        return rate;
+    }
+
+    /**
+     * Publishes the current months for readers on other threads
+     *
+     * @return the published months, oldest first
+     */
+    NavigableMap<YearMonth, MonthTotal> publish() {
+        TreeMap<YearMonth, MonthTotal> snapshot = new TreeMap<>();
+        for (Map.Entry<YearMonth, MonthSum> month : months.entrySet()) {
+            snapshot.put(month.getKey(), new MonthTotal(month.getKey(), month.getValue().cents, month.getValue().count));
+        }
+        NavigableMap<YearMonth, MonthTotal> unmodifiable = Collections.unmodifiableNavigableMap(snapshot);
+        published = unmodifiable;
+        return unmodifiable;
+    }
+
+    /**
+     * @return the months with donations as of the last refresh, oldest first, or null before the
+     *         first refresh. Safe to call from any thread.
+     */
+    public NavigableMap<YearMonth, MonthTotal> getMonthTotals() {
+        return published;
+    }
+}
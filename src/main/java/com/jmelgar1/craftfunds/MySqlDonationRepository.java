@@ -0,0 +1,87 @@
+package com.jmelgar1.craftfunds;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Donation repository backed by a remote MySQL server, configured through the
+ * database.url, database.username and database.password keys.
+ */
+public class MySqlDonationRepository extends JdbcDonationRepository {
+
+    public MySqlDonationRepository(CraftFundsConfig config) {
+        super(buildUrl(config), config.databaseUsername(), config.databasePassword(), config);
+    }
+
+    private static String buildUrl(CraftFundsConfig config) {
+        String url = config.databaseUrl();
+        int timeoutSeconds = config.databaseTimeoutSeconds();
+
+        // Add connection properties for better MySQL compatibility
+        if (!url.contains("?")) {
+            url += "?";
+        } else if (!url.endsWith("&") && !url.endsWith("?")) {
+            url += "&";
+        }
+
+        // rewriteBatchedStatements turns batched inserts into multi-row INSERTs, one round trip per batch
+        url += "useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true&connectTimeout="
+            + (timeoutSeconds * 1000);
+
+        DriverManager.setLoginTimeout(timeoutSeconds);
+
+        CraftFunds.LOGGER.debug("Creating connection pool for database: {}", url.replaceAll("password=[^&]*", "password=***"));
+
+        // Don't set network timeout as it requires an executor in newer MySQL connector versions
+        // The connectTimeout in the URL should handle connection timeouts
+        return url;
+    }
+
+    /**
+     * Loads the driver on first use. Class initialization runs exactly once
+     * and is thread-safe, so later checks take no lock.
+     */
+    private static final class DriverHolder {
+        private static final boolean LOADED = load();
+
+        private static boolean load() {
+            try {
+                // Try the newer MySQL connector first
+                Class.forName("com.mysql.cj.jdbc.Driver");
+                CraftFunds.LOGGER.info("MySQL JDBC driver loaded successfully");
+                return true;
+            } catch (ClassNotFoundException e) {
+                CraftFunds.LOGGER.warn("Could not load com.mysql.cj.jdbc.Driver: {}", e.getMessage());
+                try {
+                    // Fallback to older driver name if available
+                    Class.forName("com.mysql.jdbc.Driver");
+                    CraftFunds.LOGGER.info("MySQL JDBC driver (legacy) loaded successfully");
+                    return true;
+                } catch (ClassNotFoundException e2) {
+                    CraftFunds.LOGGER.error("Failed to load any MySQL JDBC driver");
+                    CraftFunds.LOGGER.error("  com.mysql.cj.jdbc.Driver: {}", e.getMessage());
+                    CraftFunds.LOGGER.error("  com.mysql.jdbc.Driver: {}", e2.getMessage());
+
+                    // List the drivers that are available, for debugging
+                    java.util.Enumeration<java.sql.Driver> drivers = java.sql.DriverManager.getDrivers();
+                    while (drivers.hasMoreElements()) {
+                        CraftFunds.LOGGER.error("  available: {}", drivers.nextElement().getClass().getName());
+                    }
+                    return false;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void loadDriver() throws SQLException {
+        if (!DriverHolder.LOADED) {
+            throw new SQLException("MySQL JDBC driver is not available");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+}
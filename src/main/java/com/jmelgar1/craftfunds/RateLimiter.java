@@ -0,0 +1,106 @@
+package com.jmelgar1.craftfunds;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player token bucket, used to throttle commands.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be
+ * full again (the generic cell rate algorithm), so taking a token is one
+ * compare-and-set with no locking and no allocation. A full bucket behaves
+ * exactly like a missing one, so buckets that have refilled are dropped by a
+ * sweep at most once a minute, and memory only grows with the players who
+ * were throttled recently.
+ */
+public class RateLimiter {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * @param intervalNanos Time to earn back one token
+     * @param toleranceNanos How far ahead of now a bucket may be booked, i.e. (burst - 1) tokens
+     */
+    private record Limits(long intervalNanos, long toleranceNanos) {}
+
+    private final ConcurrentHashMap<UUID, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    private volatile Limits limits;
+
+    /**
+     * @param perMinute Tokens earned per minute; 0 disables limiting
+     * @param burst The most tokens a bucket holds
+     */
+    public RateLimiter(int perMinute, int burst) {
+        this.limits = limitsFor(perMinute, burst);
+    }
+
+    /**
+     * Applies new limits. Safe to call from any thread; existing buckets keep their state.
+     *
+     * @param perMinute Tokens earned per minute; 0 disables limiting
+     * @param burst The most tokens a bucket holds
+     */
+    public void reconfigure(int perMinute, int burst) {
+        this.limits = limitsFor(perMinute, burst);
+        if (limits == null) {
+            buckets.clear();
+        }
+    }
+
+    private static Limits limitsFor(int perMinute, int burst) {
+        if (perMinute <= 0) {
+            return null;
+        }
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        return new Limits(intervalNanos, intervalNanos * (Math.max(1, burst) - 1));
+    }
+
+    /**
+     * Takes a token from the player's bucket
+     *
+     * @param playerId The player making the request
+     * @return true if a token was available, false if the request should be throttled
+     */
+    public boolean tryAcquire(UUID playerId) {
+        Limits limits = this.limits;
+        if (limits == null) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        sweepIfDue(now);
+
+        AtomicLong bucket = buckets.get(playerId);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(playerId, id -> new AtomicLong(now));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now > 0 ? fullAt : now;
+            if (start - now > limits.toleranceNanos()) {
+                return false;
+            }
+            if (bucket.compareAndSet(fullAt, start + limits.intervalNanos())) {
+                return true;
+            }
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long nextSweep = nextSweepNanos.get();
+        if (now - nextSweep < 0 || !nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        // A bucket that has refilled holds no state worth keeping
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    /**
+     * @return the number of buckets currently held
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.jmelgar1.craftfunds;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists the last good {@link FundingReport} to a small binary file under
+ * config/, so a restarted server can serve the fund message from memory
+ * before its first database refresh completes.
+ *
+ * Writes go to a temporary file that is then atomically moved into place, so
+ * a crash mid-write never leaves a truncated snapshot behind.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x43465331; // "CFS1"
+    // Version 1 stored amounts as doubles; version 2 stores long cents
+    private static final int FORMAT_VERSION = 2;
+    private static final String SNAPSHOT_FILE_NAME = "craftfunds-snapshot.dat";
+    private static final String CONFIG_DIR = "config";
+
+    private final Path snapshotPath;
+
+    public SnapshotStore() {
+        this(Paths.get(CONFIG_DIR, SNAPSHOT_FILE_NAME));
+    }
+
+    public SnapshotStore(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Loads the persisted snapshot, if there is a readable one
+     *
+     * @return The last persisted report, or empty if none exists or it cannot be read
+     */
+    public Optional<FundingReport> load() {
+        if (!Files.exists(snapshotPath)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != 1 && version != FORMAT_VERSION) {
+                CraftFunds.LOGGER.warn("Ignoring funding snapshot {} with unknown format", snapshotPath);
+                return Optional.empty();
+            }
+            boolean legacy = version == 1;
+
+            long generatedAtMillis = in.readLong();
+            long totalDonations = readCents(in, legacy);
+            long totalSpending = readCents(in, legacy);
+            int donationCount = in.readInt();
+            int excessDonationCount = in.readInt();
+
+            int displayedCount = in.readInt();
+            List<DonationLedger.ExcessDonation> displayed = new ArrayList<>(displayedCount);
+            for (int i = 0; i < displayedCount; i++) {
+                String name = in.readUTF();
+                long amount = readCents(in, legacy);
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                displayed.add(new DonationLedger.ExcessDonation(name, amount, date));
+            }
+
+            FundingReport report = FundingReport.restored(totalDonations, totalSpending, donationCount,
+                excessDonationCount, displayed, generatedAtMillis);
+            CraftFunds.LOGGER.info("Loaded funding snapshot from {} ({} ms old)",
+                snapshotPath, System.currentTimeMillis() - generatedAtMillis);
+            return Optional.of(report);
+
+        } catch (IOException | RuntimeException e) {
+            CraftFunds.LOGGER.warn("Failed to read funding snapshot {}: {}", snapshotPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static long readCents(DataInputStream in, boolean legacy) throws IOException {
+        return legacy ? Math.round(in.readDouble() * 100) : in.readLong();
+    }
+
+    /**
+     * Writes the report to disk, replacing the previous snapshot atomically.
+     * Error reports are never persisted.
+     *
+     * @param report The report to persist
+     */
+    public void save(FundingReport report) {
+        if (report.isError()) {
+            return;
+        }
+
+        Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(report.generatedAtMillis);
+                out.writeLong(report.totalDonationsCents);
+                out.writeLong(report.totalSpendingCents);
+                out.writeInt(report.donationCount);
+                out.writeInt(report.excessDonationCount);
+
+                out.writeInt(report.displayedDonations.size());
+                for (DonationLedger.ExcessDonation donation : report.displayedDonations) {
+                    out.writeUTF(donation.name());
+                    out.writeLong(donation.amountCents());
+                    out.writeLong(donation.date().toEpochDay());
+                }
+            }
+
+            try {
+                Files.move(tempPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            CraftFunds.LOGGER.debug("Saved funding snapshot to {}", snapshotPath);
+
+        } catch (IOException e) {
+            CraftFunds.LOGGER.warn("Failed to save funding snapshot to {}: {}", snapshotPath, e.getMessage());
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (IOException ignored) {
+                // Nothing more to clean up
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.jmelgar1.craftfunds;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional HTTP endpoint that lets a payment notifier or a script push new
+ * donations instead of waiting for the next scheduled refresh.
+ *
+ * Accepts POST /donations with a JSON object, or an array of objects, of the form
+ * {"transaction_id": "pay-123", "name": "Steve", "amount": 5.00, "currency": "USD", "date": "2025-01-31"}.
+ * Currency defaults to USD and date to today. When webhook.secret is set, the
+ * request must carry it in the X-CraftFunds-Secret header.
+ *
+ * Valid donations are handed to a {@link DonationIngestor}, which stores them
+ * in batches and refreshes the funding snapshot. The response is sent once the
+ * donations are committed: 200 on success, 4xx for a rejected request and 503
+ * if they could not be confirmed in time. The transaction id makes a resend
+ * harmless, so after a 503 the sender retries with the same ids whether or not
+ * the batch eventually committed.
+ */
+public class WebhookServer implements AutoCloseable {
+    private static final String PATH = "/donations";
+    private static final String SECRET_HEADER = "X-CraftFunds-Secret";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_DONATIONS_PER_REQUEST = 500;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_TRANSACTION_ID_LENGTH = 64;
+    private static final long MAX_AMOUNT_CENTS = 100_000_000;
+
+    private final DonationIngestor ingestor;
+    private final String secret;
+    private final HttpServer server;
+    private final ExecutorService handlerExecutor;
+
+    /**
+     * Binds the listener; call {@link #start()} to begin accepting requests
+     *
+     * @param ingestor Where accepted donations are sent
+     * @param bindAddress The address to listen on, normally 127.0.0.1
+     * @param port The port to listen on
+     * @param secret The shared secret requests must present, or empty to accept any local request
+     * @throws IOException if the address cannot be bound
+     */
+    public WebhookServer(DonationIngestor ingestor, String bindAddress, int port, String secret) throws IOException {
+        this.ingestor = ingestor;
+        this.secret = secret;
+        this.server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.handlerExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "CraftFunds-Webhook-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handlerExecutor);
+        server.createContext(PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+        CraftFunds.LOGGER.info("Donation webhook listening on http://{}:{}{}",
+            server.getAddress().getHostString(), server.getAddress().getPort(), PATH);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Allow", "POST");
+                respond(exchange, 405, "Only POST is supported");
+                return;
+            }
+            if (!secret.isEmpty() && !secretMatches(exchange.getRequestHeaders().getFirst(SECRET_HEADER))) {
+                respond(exchange, 401, "Missing or invalid " + SECRET_HEADER + " header");
+                return;
+            }
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+                return;
+            }
+
+            Map<String, DonationRepository.NewDonation> donations;
+            try {
+                donations = parseDonations(new String(body, StandardCharsets.UTF_8));
+            } catch (JsonParseException e) {
+                respond(exchange, 400, "Body is not valid JSON");
+                return;
+            } catch (IllegalStateException | UnsupportedOperationException e) {
+                respond(exchange, 400, "Donation fields have the wrong type");
+                return;
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+
+            try {
+                ingestor.submit(donations).get(ingestor.getCommitTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                respond(exchange, 503, "Donations could not be stored, retry with the same transaction_id values");
+                return;
+            } catch (TimeoutException e) {
+                // The batch may still commit; the retry is deduplicated by transaction id either way
+                respond(exchange, 503, "Donations not confirmed in time, retry with the same transaction_id values");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Server is shutting down, retry with the same transaction_id values");
+                return;
+            }
+
+            CraftFunds.LOGGER.info("Accepted {} donation(s) from webhook client {}",
+                donations.size(), exchange.getRemoteAddress());
+            respond(exchange, 200, "Stored " + donations.size() + " donation(s)");
+        }
+    }
+
+    private boolean secretMatches(String provided) {
+        if (provided == null) {
+            return false;
+        }
+        // Constant-time comparison so the secret can't be guessed from response timings
+        return MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), provided.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the body, or null if it is larger than the limit
+     */
+    private static byte[] readBody(InputStream input) throws IOException {
+        byte[] body = input.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private static Map<String, DonationRepository.NewDonation> parseDonations(String body) {
+        JsonElement root = JsonParser.parseString(body);
+        Map<String, DonationRepository.NewDonation> donations = new LinkedHashMap<>();
+        if (root.isJsonArray()) {
+            if (root.getAsJsonArray().size() > MAX_DONATIONS_PER_REQUEST) {
+                throw new IllegalArgumentException("At most " + MAX_DONATIONS_PER_REQUEST + " donations per request");
+            }
+            for (JsonElement element : root.getAsJsonArray()) {
+                addDonation(donations, element);
+            }
+        } else {
+            addDonation(donations, root);
+        }
+        if (donations.isEmpty()) {
+            throw new IllegalArgumentException("No donations in request");
+        }
+        return donations;
+    }
+
+    private static void addDonation(Map<String, DonationRepository.NewDonation> donations, JsonElement element) {
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("Each donation must be a JSON object");
+        }
+        JsonObject object = element.getAsJsonObject();
+
+        String transactionId = object.has("transaction_id") ? object.get("transaction_id").getAsString().trim() : "";
+        if (transactionId.isEmpty() || transactionId.length() > MAX_TRANSACTION_ID_LENGTH) {
+            throw new IllegalArgumentException("transaction_id must be 1-" + MAX_TRANSACTION_ID_LENGTH + " characters");
+        }
+        if (donations.containsKey(transactionId)) {
+            throw new IllegalArgumentException("Duplicate transaction_id " + transactionId + " in request");
+        }
+        donations.put(transactionId, parseDonation(object));
+    }
+
+    private static DonationRepository.NewDonation parseDonation(JsonObject object) {
+
+        String name = object.has("name") ? object.get("name").getAsString().trim() : "";
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("name must be 1-" + MAX_NAME_LENGTH + " characters");
+        }
+
+        if (!object.has("amount")) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        BigDecimal exactAmount;
+        try {
+            exactAmount = object.get("amount").getAsBigDecimal();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount must be a number");
+        }
+        if (exactAmount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("amount must have at most two decimal places");
+        }
+        long amountCents = exactAmount.compareTo(Money.toDecimal(MAX_AMOUNT_CENTS)) <= 0 ? Money.toCents(exactAmount) : 0;
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("amount must be positive and at most " + Money.format(MAX_AMOUNT_CENTS));
+        }
+
+        String currency = object.has("currency")
+            ? ExchangeRates.normalize(object.get("currency").getAsString())
+            : ExchangeRates.GOAL_CURRENCY;
+        if (!currency.matches("[A-Z]{3}")) {
+            throw new IllegalArgumentException("currency must be a three-letter ISO code");
+        }
+
+        LocalDate date = LocalDate.now();
+        if (object.has("date")) {
+            try {
+                date = LocalDate.parse(object.get("date").getAsString());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("date must be in yyyy-MM-dd format");
+            }
+            if (date.isAfter(LocalDate.now().plusDays(1))) {
+                throw new IllegalArgumentException("date cannot be in the future");
+            }
+        }
+
+        return new DonationRepository.NewDonation(name, amountCents, currency, date);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] response = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+
+    /**
+     * Stops accepting requests, giving in-flight ones a moment to finish
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        handlerExecutor.shutdownNow();
+        CraftFunds.LOGGER.info("Donation webhook stopped");
+    }
+}